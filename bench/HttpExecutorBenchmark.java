@@ -0,0 +1,126 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP 执行器基准：本地桩服务模拟慢速的网易云（每次调用延迟固定时间，桩本身不占线程等待），
+ * 前端 HttpServer 的处理器像音乐接口一样同步调用上游两次；同时发出 1000 个请求，
+ * 比较 cached / bounded / virtual 三种执行器的峰值线程数、堆内存增量和延迟 p99。
+ *
+ * <pre>
+ * java -cp out HttpExecutorBenchmark [并发请求数，默认 1000] [上游延迟 ms，默认 200]
+ * </pre>
+ */
+public final class HttpExecutorBenchmark {
+    private static final int UPSTREAM_CALLS = 2;
+    private static final byte[] UPSTREAM_BODY = "{\"result\":{\"songs\":[]},\"code\":200}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 200;
+
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        HttpServer upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), requests * 2);
+        upstream.createContext("/", exchange -> timer.schedule(() -> reply(exchange, UPSTREAM_BODY), delayMillis, TimeUnit.MILLISECONDS));
+        upstream.start();
+        URI upstreamUri = URI.create("http://127.0.0.1:" + upstream.getAddress().getPort() + "/search");
+
+        try {
+            for (String mode : List.of("cached", "bounded", "virtual")) {
+                run(mode, upstreamUri, requests);
+            }
+        } finally {
+            upstream.stop(0);
+            timer.shutdownNow();
+        }
+    }
+
+    private static void run(String mode, URI upstreamUri, int requests) throws Exception {
+        HttpClient upstreamClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        HttpServer front = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), requests * 2);
+        front.createContext("/api/music/search", exchange -> {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(upstreamUri).timeout(Duration.ofSeconds(60)).GET().build();
+                byte[] body = null;
+                for (int i = 0; i < UPSTREAM_CALLS; i++) {
+                    body = upstreamClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+                }
+                reply(exchange, body);
+            } catch (Exception ex) {
+                exchange.sendResponseHeaders(502, -1);
+                exchange.close();
+            }
+        });
+        ExecutorService executor = HttpExecutors.create(mode, 0);
+        front.setExecutor(executor);
+        front.start();
+        URI frontUri = URI.create("http://127.0.0.1:" + front.getAddress().getPort() + "/api/music/search?q=x");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        long[] latencies = new long[requests];
+        List<CompletableFuture<Void>> pending = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int slot = i;
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(frontUri).timeout(Duration.ofSeconds(120)).GET().build();
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> latencies[slot] = response.statusCode() == 200 ? System.nanoTime() - sent : -1));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.MINUTES);
+        long wallNanos = System.nanoTime() - start;
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        int peakThreads = threads.getPeakThreadCount();
+
+        front.stop(0);
+        executor.shutdownNow();
+
+        long failed = Arrays.stream(latencies).filter(nanos -> nanos < 0).count();
+        long[] sorted = Arrays.stream(latencies).filter(nanos -> nanos >= 0).sorted().toArray();
+        System.out.printf("%-8s %d 个请求 %7.1f ms  峰值线程 %4d（+%d）  堆增量 %6.1f MB  p50 %7.1f ms  p99 %7.1f ms  失败 %d%n",
+            mode, requests, wallNanos / 1e6, peakThreads, peakThreads - threadsBefore,
+            (heapAfter - heapBefore) / 1048576.0, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, failed);
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1)];
+    }
+
+    private static void reply(HttpExchange exchange, byte[] body) {
+        try (OutputStream os = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            os.write(body);
+        } catch (Exception ignored) {
+            // 客户端已断开
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 提醒引擎基准：旧版全量扫描 vs 事件队列 vs 分层时间轮，规模 10k / 100k / 1M。
+ *
+ * <pre>
+ * javac -encoding UTF-8 -cp lib/jlayer-1.0.1.jar -d out src/*.java bench/ReminderBenchmark.java
+ * java -Xmx3g -cp out ReminderBenchmark
+ * </pre>
+ */
+public final class ReminderBenchmark {
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int CANCELS = 100;
+    private static final int TICKS = 3600;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-6s %12s %14s %14s%n", "engine", "n", "insert(ms)", "tick(us/op)", "cancel(us/op)");
+        for (int n : SIZES) {
+            List<Main.ScheduleEntry> entries = generate(n, new Random(42));
+            benchScan(entries);
+            benchQueue(entries);
+            benchWheel(entries);
+        }
+    }
+
+    private static List<Main.ScheduleEntry> generate(int n, Random random) {
+        LocalDateTime base = LocalDateTime.now().withSecond(0).withNano(0).plusMinutes(1);
+        Main.RepeatRule[] rules = Main.RepeatRule.values();
+        List<Main.ScheduleEntry> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDateTime at = base.plusMinutes(random.nextInt(60 * 24 * 60));
+            list.add(new Main.ScheduleEntry("bench-" + i, at.toLocalDate(), at.toLocalTime(), rules[i % rules.length]));
+        }
+        return list;
+    }
+
+    /**
+     * 复刻旧版 checkReminders：持锁遍历所有条目，逐条对齐并判断是否到期。
+     */
+    private static void benchScan(List<Main.ScheduleEntry> source) {
+        Object lock = new Object();
+        List<Main.ScheduleEntry> entries = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (Main.ScheduleEntry entry : source) {
+            synchronized (lock) {
+                entries.add(entry);
+            }
+        }
+        long insert = System.nanoTime() - t0;
+
+        int rounds = 20;
+        t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime threshold = now.plusMinutes(1);
+            synchronized (lock) {
+                for (Main.ScheduleEntry entry : entries) {
+                    LocalDateTime time = entry.alignedTo(now).getDateTime();
+                    if (!time.isAfter(threshold) && !time.isBefore(now)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        }
+        long tick = (System.nanoTime() - t0) / rounds;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < CANCELS; i++) {
+            String id = source.get(i * (source.size() / CANCELS)).getId();
+            synchronized (lock) {
+                entries.removeIf(e -> id.equals(e.getId()));
+            }
+        }
+        long cancel = (System.nanoTime() - t0) / CANCELS;
+        print("scan", source.size(), insert, tick, cancel);
+    }
+
+    private static void benchQueue(List<Main.ScheduleEntry> source) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        ReminderScheduler engine = new ReminderScheduler(executor, e -> { });
+        long t0 = System.nanoTime();
+        for (Main.ScheduleEntry entry : source) {
+            engine.schedule(entry);
+        }
+        long insert = System.nanoTime() - t0;
+
+        // 事件队列空闲时不做任何工作；"tick" 记为一次 出队+重新入队 的代价
+        t0 = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            Main.ScheduleEntry entry = source.get(i % source.size());
+            engine.cancel(entry.getId());
+            engine.schedule(entry);
+        }
+        long tick = (System.nanoTime() - t0) / TICKS;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < CANCELS; i++) {
+            engine.cancel(source.get(i * (source.size() / CANCELS)).getId());
+        }
+        long cancel = (System.nanoTime() - t0) / CANCELS;
+        print("queue", source.size(), insert, tick, cancel);
+        engine.clear();
+        executor.shutdownNow();
+    }
+
+    private static void benchWheel(List<Main.ScheduleEntry> source) {
+        long start = System.currentTimeMillis() / 1000;
+        TimingWheelScheduler engine = new TimingWheelScheduler(e -> { }, start);
+        long t0 = System.nanoTime();
+        for (Main.ScheduleEntry entry : source) {
+            engine.schedule(entry);
+        }
+        long insert = System.nanoTime() - t0;
+
+        // 推进一小时（含分/时级下放），按秒摊销
+        t0 = System.nanoTime();
+        engine.advanceTo(start + TICKS);
+        long tick = (System.nanoTime() - t0) / TICKS;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < CANCELS; i++) {
+            engine.cancel(source.get(i * (source.size() / CANCELS)).getId());
+        }
+        long cancel = (System.nanoTime() - t0) / CANCELS;
+        print("wheel", source.size(), insert, tick, cancel);
+        engine.clear();
+    }
+
+    private static void print(String engine, int n, long insertNanos, long tickNanos, long cancelNanos) {
+        System.out.printf("%-8s %-6s %12.1f %14.2f %14.2f%n", engine, label(n),
+            insertNanos / 1e6, tickNanos / 1e3, cancelNanos / 1e3);
+    }
+
+    private static String label(int n) {
+        return n >= 1_000_000 ? (n / 1_000_000) + "M" : (n / 1000) + "k";
+    }
+}
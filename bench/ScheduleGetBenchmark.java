@@ -0,0 +1,129 @@
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GET /api/schedules 响应体的分配基准：旧版每次 StringBuilder 拼接 toJson() 再整体编码 UTF-8，
+ * 对比 ScheduleJsonCache（条目字节缓存 + 按版本缓存整体）。分别测列表不变、每次请求前改一条两种情况，
+ * 输出每次请求的耗时、分配量和期间的 GC 次数 / 耗时。
+ *
+ * <pre>
+ * java -cp out ScheduleGetBenchmark [日程条数，默认 10000]
+ * </pre>
+ */
+public final class ScheduleGetBenchmark {
+    private static final int REQUESTS = 500;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        ScheduleTable table = new ScheduleTable();
+        List<Main.ScheduleEntry> entries = new ArrayList<>(count);
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < count; i++) {
+            entries.add(entry(String.valueOf(i), "日程 " + i + " \"会议\"", base.plusDays(i % 365), i));
+        }
+        table.replaceAll(entries);
+        ScheduleJsonCache cache = new ScheduleJsonCache();
+        if (!Arrays.equals(legacyBody(table.sorted()), cache.body(table.versioned()))) {
+            throw new IllegalStateException("缓存的响应体与旧实现不一致");
+        }
+
+        OutputStream sink = OutputStream.nullOutputStream();
+        System.out.printf("%d 条，响应体 %.1f KB%n", count, legacyBody(table.sorted()).length / 1024.0);
+        System.out.printf("%-16s %12s %16s %8s %10s%n", "path", "us/req", "alloc/req(KB)", "gc", "gc(ms)");
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            measure(report, "legacy", () -> sink.write(legacyBody(table.sorted())));
+            measure(report, "cached", () -> sink.write(cache.body(table.versioned())));
+            measure(report, "legacy+edit", () -> {
+                edit(table, count);
+                sink.write(legacyBody(table.sorted()));
+            });
+            measure(report, "cached+edit", () -> {
+                edit(table, count);
+                sink.write(cache.body(table.versioned()));
+            });
+        }
+    }
+
+    private interface Request {
+        void run() throws Exception;
+    }
+
+    /**
+     * 第一轮只预热；第二轮输出平均耗时、平均分配量和 GC 统计。
+     */
+    private static void measure(boolean report, String path, Request request) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        System.gc();
+        long[] gcBefore = gcTotals();
+        long allocStart = threads.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long alloc = threads.getThreadAllocatedBytes(tid) - allocStart;
+        long[] gcAfter = gcTotals();
+        if (report) {
+            System.out.printf("%-16s %12.1f %16.1f %8d %10d%n", path, elapsed / 1e3 / REQUESTS,
+                alloc / 1024.0 / REQUESTS, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+        }
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+
+    private static int edits;
+
+    /**
+     * 改一条日程的标题，模拟两次轮询之间的一次编辑。
+     */
+    private static void edit(ScheduleTable table, int count) {
+        int index = edits++ % count;
+        Main.ScheduleEntry old = table.get(String.valueOf(index));
+        table.put(entry(old.getId(), "已编辑 " + edits, old.getDate(), index));
+    }
+
+    private static Main.ScheduleEntry entry(String id, String title, LocalDate date, int i) {
+        return new Main.ScheduleEntry(
+            id,
+            title,
+            date,
+            LocalTime.of(i % 24, i % 60),
+            Main.RepeatRule.values()[i % 3],
+            i % 4 == 0 ? "歌曲 " + i : "",
+            i % 4 == 0 ? "https://music.example/song?id=" + i : "",
+            ""
+        );
+    }
+
+    // ---- 旧版实现（照搬自 SchedulerApp.handleSchedulesGet + sendResponse） ----
+
+    private static byte[] legacyBody(List<Main.ScheduleEntry> list) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(list.get(i).toJson());
+        }
+        sb.append(']');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 标题检索基准：ScheduleSearchIndex 对比逐条 contains 扫描。先用 reloaded 建立索引，
+ * 再测几种查询的单次耗时，以及建索引之后逐条更新的耗时。
+ *
+ * <pre>
+ * java -Xmx2g -cp out ScheduleSearchBenchmark [日程条数，默认 1000000]
+ * </pre>
+ */
+public final class ScheduleSearchBenchmark {
+    private static final String[] WORDS = {
+        "周会", "项目评审", "提交报告", "体检", "还信用卡", "接孩子", "健身", "牙医复诊", "交房租", "读书会",
+        "产品发布", "代码审查", "生日聚会", "买菜", "航班值机", "缴水电费", "英语课", "年度总结", "面试", "团建"
+    };
+    private static final String[] SONGS = {"晴天", "稻香", "夜曲", "Hello", "Yesterday", "小幸运", "平凡之路", ""};
+    private static final String[] QUERIES = {"项目评审", "牙医", "会", "生日聚会 12345", "hello", "不存在的词"};
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Main.ScheduleEntry> entries = new ArrayList<>(count);
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < count; i++) {
+            entries.add(new Main.ScheduleEntry(
+                String.valueOf(i),
+                WORDS[i % WORDS.length] + " " + i,
+                base.plusDays(i % 365),
+                LocalTime.of(i % 24, i % 60),
+                Main.RepeatRule.NONE,
+                SONGS[i % SONGS.length],
+                "",
+                ""
+            ));
+        }
+        ScheduleSearchIndex index = new ScheduleSearchIndex();
+        long start = System.nanoTime();
+        index.reloaded(entries);
+        System.out.printf("%d 条，建索引 %.0f ms%n", count, (System.nanoTime() - start) / 1e6);
+
+        System.out.printf("%-20s %10s %12s %12s%n", "query", "hits", "index(us)", "scan(us)");
+        for (String query : QUERIES) {
+            int hits = 0;
+            for (int round = 0; round < 2; round++) {
+                long indexStart = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    hits = index.search(query, 50).size();
+                }
+                double indexMicros = (System.nanoTime() - indexStart) / 1e3 / ROUNDS;
+                long scanStart = System.nanoTime();
+                int scanned = 0;
+                for (int i = 0; i < ROUNDS / 20; i++) {
+                    scanned = scan(entries, query);
+                }
+                double scanMicros = (System.nanoTime() - scanStart) / 1e3 / (ROUNDS / 20);
+                if (round == 1) {
+                    System.out.printf("%-20s %10s %12.1f %12.1f%n", query, hits + "/" + scanned, indexMicros, scanMicros);
+                }
+            }
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            Main.ScheduleEntry old = entries.get(i * 7 % count);
+            index.upserted(old, new Main.ScheduleEntry(old.getId(), "已改 " + WORDS[i % WORDS.length] + i,
+                old.getDate(), old.getTime(), old.getRepeatRule(), old.getMusicTitle(), "", ""));
+        }
+        System.out.printf("更新标题 %.2f us/次%n", (System.nanoTime() - start) / 1e3 / 100_000);
+    }
+
+    /**
+     * 旧做法：逐条对标题和铃声名做 contains，返回命中数。
+     */
+    private static int scan(List<Main.ScheduleEntry> entries, String query) {
+        String q = query.toLowerCase();
+        int hits = 0;
+        for (Main.ScheduleEntry entry : entries) {
+            if (entry.getTitle().toLowerCase().contains(q) || entry.getMusicTitle().toLowerCase().contains(q)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,78 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 冷启动加载基准：schedule.xml（StAX）vs schedule.bin（内存映射）。
+ * 二进制快照分别统计跳过校验的映射加解码、CRC 校验，以及两者合起来的耗时。
+ *
+ * <pre>
+ * java -Xmx3g -cp out SnapshotLoadBenchmark [条目数，默认 1000000]
+ * </pre>
+ */
+public final class SnapshotLoadBenchmark {
+    /** SnapshotFiles 追加的 "\n<!-- crc32:xxxxxxxx -->\n"，跳过校验直接映射时扣掉。 */
+    private static final int FOOTER_BYTES = 25;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Main.ScheduleEntry> entries = new ArrayList<>(count);
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < count; i++) {
+            entries.add(new Main.ScheduleEntry(
+                "日程 " + i,
+                base.plusDays(i % 365),
+                LocalTime.of(i % 24, i % 60),
+                Main.RepeatRule.values()[i % 3],
+                i % 4 == 0 ? "歌曲 " + (i % 100) : "",
+                i % 4 == 0 ? "https://music.example/song?id=" + (i % 100) : "",
+                ""
+            ));
+        }
+        entries.sort(ScheduleTable.BY_TIME);
+
+        Path dir = Files.createTempDirectory("snapshot-bench");
+        SnapshotFiles xml = new SnapshotFiles(dir.resolve("schedule.xml"), 0);
+        SnapshotFiles bin = new SnapshotFiles(dir.resolve("schedule.bin"), 0);
+        long start = System.nanoTime();
+        xml.write(out -> ScheduleXmlCodec.write(entries, out));
+        long xmlSave = System.nanoTime() - start;
+        start = System.nanoTime();
+        bin.write(out -> ScheduleBinaryCodec.write(entries, out));
+        long binSave = System.nanoTime() - start;
+        System.out.printf("%d 条：schedule.xml %.1f MB（保存 %.0f ms），schedule.bin %.1f MB（保存 %.0f ms）%n",
+            count, Files.size(dir.resolve("schedule.xml")) / 1048576.0, xmlSave / 1e6,
+            Files.size(dir.resolve("schedule.bin")) / 1048576.0, binSave / 1e6);
+
+        start = System.nanoTime();
+        List<Main.ScheduleEntry> mapped = ScheduleBinaryCodec.read(dir.resolve("schedule.bin"),
+            Files.size(dir.resolve("schedule.bin")) - FOOTER_BYTES);
+        long decode = System.nanoTime() - start;
+        start = System.nanoTime();
+        long verified = SnapshotFiles.contentLength(dir.resolve("schedule.bin"));
+        long crc = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<Main.ScheduleEntry> decoded = bin.recoverFile(ScheduleBinaryCodec::read).value;
+        long binFull = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<Main.ScheduleEntry> parsed = xml.recover(ScheduleXmlCodec::read).value;
+        long xmlFull = System.nanoTime() - start;
+
+        if (verified < 0 || !mapped.get(0).toJson().equals(entries.get(0).toJson())
+            || !decoded.get(count - 1).toJson().equals(parsed.get(count - 1).toJson())) {
+            throw new IllegalStateException("快照内容不一致");
+        }
+        System.out.printf("%-28s %10s%n", "阶段", "耗时(ms)");
+        System.out.printf("%-28s %10.1f%n", "bin 映射 + 全部解码", decode / 1e6);
+        System.out.printf("%-28s %10.1f%n", "bin CRC 校验", crc / 1e6);
+        System.out.printf("%-28s %10.1f%n", "bin 校验 + 全部解码", binFull / 1e6);
+        System.out.printf("%-28s %10.1f%n", "xml 校验 + StAX 全部解析", xmlFull / 1e6);
+
+        for (Path path : List.of(dir.resolve("schedule.xml"), dir.resolve("schedule.bin"), dir)) {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 存储后端基准：同一组写入 / 删除 / 区间查询分别跑在 memory、xml、binary、journal 后端上，
+ * 输出总耗时和各后端自己记录的延迟统计。与 SchedulerApp 一样经由日程表写入，后端从表监听收到变更；
+ * 每次写入后都等待 sync，相当于所有请求都带 ?sync=true。
+ *
+ * <pre>
+ * java -cp out StoreBackendBenchmark [写入次数，默认 200]
+ * </pre>
+ */
+public final class StoreBackendBenchmark {
+    private static final int SEED = 10_000;
+    private static final int SCANS = 1_000;
+    /** memory 后端重启即丢失，这里复用同一张表模拟“已有数据”。 */
+    private static final ScheduleTable MEMORY_TABLE = new ScheduleTable();
+
+    public static void main(String[] args) throws Exception {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        for (String backend : List.of("memory", "xml", "binary", "journal")) {
+            Path dir = Files.createTempDirectory("store-bench");
+            try {
+                run(backend, dir, writes);
+            } finally {
+                try (Stream<Path> files = Files.walk(dir)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+            }
+        }
+    }
+
+    private static void run(String backend, Path dir, int writes) throws Exception {
+        seed(backend, dir);
+        ScheduleTable table = "memory".equals(backend) ? MEMORY_TABLE : new ScheduleTable();
+        ScheduleStore store = open(backend, dir, table);
+        long start = System.nanoTime();
+        List<Main.ScheduleEntry> loaded = store.load();
+        long loadNanos = System.nanoTime() - start;
+        table.replaceAll(loaded);
+        table.addListener(store.asListener());
+
+        start = System.nanoTime();
+        for (int i = 0; i < writes; i++) {
+            Main.ScheduleEntry entry = loaded.get(i % loaded.size());
+            if (i % 4 == 3) {
+                table.remove(entry.getId());
+            } else {
+                table.put(entry(SEED + i));
+            }
+            store.sync().get(30, TimeUnit.SECONDS);
+        }
+        long writeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        long found = 0;
+        for (int i = 0; i < SCANS; i++) {
+            LocalDateTime from = base.plusDays(i % 365);
+            found += store.rangeScan(from, from.plusDays(1)).size();
+        }
+        long scanNanos = System.nanoTime() - start;
+        store.flush().get(30, TimeUnit.SECONDS);
+        store.close();
+
+        System.out.printf("%-8s load %6.1f ms  %d 次同步写 %8.1f ms  %d 次区间查询 %6.1f ms（命中 %d）%n",
+            backend, loadNanos / 1e6, writes, writeNanos / 1e6, SCANS, scanNanos / 1e6, found);
+        System.out.println("         " + store.metrics().toJson(store.name()));
+    }
+
+    private static void seed(String backend, Path dir) throws Exception {
+        List<Main.ScheduleEntry> seed = new ArrayList<>(SEED);
+        for (int i = 0; i < SEED; i++) {
+            seed.add(entry(i));
+        }
+        if ("memory".equals(backend)) {
+            MEMORY_TABLE.replaceAll(seed);
+            return;
+        }
+        ScheduleTable table = new ScheduleTable();
+        ScheduleStore store = open(backend, dir, table);
+        store.load();
+        table.addListener(store.asListener());
+        table.replaceAll(seed);
+        store.flush().get(30, TimeUnit.SECONDS);
+        store.close();
+    }
+
+    private static ScheduleStore open(String backend, Path dir, ScheduleTable table) throws Exception {
+        SnapshotFiles xml = new SnapshotFiles(dir.resolve("schedule.xml"), 3);
+        SnapshotFiles bin = new SnapshotFiles(dir.resolve("schedule.bin"), 3);
+        switch (backend) {
+            case "memory":
+                return new MemoryScheduleStore(table);
+            case "binary":
+                return new SnapshotScheduleStore(table, bin, SnapshotFormat.BINARY, null, 500, 200);
+            case "journal":
+                return new LogScheduleStore(table, dir.resolve("schedule.journal"), xml, SnapshotFormat.XML, null);
+            default:
+                return new SnapshotScheduleStore(table, xml, SnapshotFormat.XML, null, 500, 200);
+        }
+    }
+
+    private static Main.ScheduleEntry entry(int i) {
+        return new Main.ScheduleEntry(
+            "日程 " + i,
+            LocalDate.of(2030, 1, 1).plusDays(i % 365),
+            LocalTime.of(i % 24, i % 60),
+            Main.RepeatRule.values()[i % 3]
+        );
+    }
+}
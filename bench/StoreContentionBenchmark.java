@@ -0,0 +1,198 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并发 API 客户端争用基准：旧版全局锁 + ArrayList vs ScheduleTable。
+ * 客户端按 GET 80% / POST 10% / DELETE 10% 混合请求，同时有一个提醒线程不断滚动重复条目，
+ * 统计吞吐与提醒操作的最大等待。
+ *
+ * <pre>
+ * java -cp out StoreContentionBenchmark
+ * </pre>
+ */
+public final class StoreContentionBenchmark {
+    private static final int ENTRIES = 5_000;
+    private static final int OPS_PER_CLIENT = 400;
+    private static final int[] CLIENTS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-8s %8s %14s %20s%n", "store", "clients", "ops/s", "reminder max(ms)");
+        for (int clients : CLIENTS) {
+            run("locked", new LockedStore(), clients);
+            run("table", new TableStore(), clients);
+        }
+    }
+
+    private static void run(String name, Store store, int clients) throws Exception {
+        List<Main.ScheduleEntry> seed = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            seed.add(entry(i));
+        }
+        store.load(seed);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reminderMax = new AtomicLong();
+        Thread reminder = new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                long t0 = System.nanoTime();
+                store.roll(seed.get(i++ % seed.size()).getId());
+                reminderMax.accumulateAndGet(System.nanoTime() - t0, Math::max);
+            }
+        });
+        reminder.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < OPS_PER_CLIENT; i++) {
+                    int dice = random.nextInt(10);
+                    if (dice < 8) {
+                        store.listJson();
+                    } else if (dice == 8) {
+                        store.add(entry(random.nextInt()));
+                    } else {
+                        store.delete(seed.get(random.nextInt(seed.size())).getId());
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        long elapsed = System.nanoTime() - t0;
+        running.set(false);
+        reminder.join();
+        double opsPerSec = clients * (double) OPS_PER_CLIENT / (elapsed / 1e9);
+        System.out.printf("%-8s %8d %14.0f %20.2f%n", name, clients, opsPerSec, reminderMax.get() / 1e6);
+    }
+
+    private static Main.ScheduleEntry entry(int i) {
+        LocalDateTime at = LocalDateTime.now().plusMinutes(Math.floorMod(i, 100_000));
+        return new Main.ScheduleEntry("entry-" + i, at.toLocalDate(), at.toLocalTime().withSecond(0).withNano(0),
+            Main.RepeatRule.DAILY);
+    }
+
+    private interface Store {
+        void load(List<Main.ScheduleEntry> seed);
+
+        String listJson();
+
+        void add(Main.ScheduleEntry entry);
+
+        void delete(String id);
+
+        void roll(String id);
+    }
+
+    /**
+     * 复刻旧版处理器：所有操作都在同一把锁里，GET 持锁序列化。
+     */
+    private static final class LockedStore implements Store {
+        private final Object lock = new Object();
+        private final List<Main.ScheduleEntry> entries = new ArrayList<>();
+
+        @Override
+        public void load(List<Main.ScheduleEntry> seed) {
+            synchronized (lock) {
+                entries.addAll(seed);
+            }
+        }
+
+        @Override
+        public String listJson() {
+            StringBuilder sb = new StringBuilder("[");
+            synchronized (lock) {
+                for (int i = 0; i < entries.size(); i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(entries.get(i).toJson());
+                }
+            }
+            return sb.append(']').toString();
+        }
+
+        @Override
+        public void add(Main.ScheduleEntry entry) {
+            synchronized (lock) {
+                entries.add(entry);
+            }
+        }
+
+        @Override
+        public void delete(String id) {
+            synchronized (lock) {
+                entries.removeIf(e -> id.equals(e.getId()));
+            }
+        }
+
+        @Override
+        public void roll(String id) {
+            synchronized (lock) {
+                for (int i = 0; i < entries.size(); i++) {
+                    if (entries.get(i).getId().equals(id)) {
+                        entries.set(i, entries.get(i).next());
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class TableStore implements Store {
+        private final ScheduleTable table = new ScheduleTable();
+
+        @Override
+        public void load(List<Main.ScheduleEntry> seed) {
+            table.replaceAll(seed);
+        }
+
+        @Override
+        public String listJson() {
+            List<Main.ScheduleEntry> list = table.sorted();
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(list.get(i).toJson());
+            }
+            return sb.append(']').toString();
+        }
+
+        @Override
+        public void add(Main.ScheduleEntry entry) {
+            table.put(entry);
+        }
+
+        @Override
+        public void delete(String id) {
+            table.remove(id);
+        }
+
+        @Override
+        public void roll(String id) {
+            Main.ScheduleEntry current = table.get(id);
+            if (current != null) {
+                table.replace(current, current.next());
+            }
+        }
+    }
+}
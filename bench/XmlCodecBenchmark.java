@@ -0,0 +1,165 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * schedule.xml 编解码基准：旧版 DOM + Transformer vs ScheduleXmlCodec（StAX）。
+ * 统计 10 万条日程的保存、加载耗时和每轮分配的字节数。
+ *
+ * <pre>
+ * java -cp out XmlCodecBenchmark
+ * </pre>
+ */
+public final class XmlCodecBenchmark {
+    private static final int ENTRIES = 100_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        List<Main.ScheduleEntry> entries = new ArrayList<>();
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < ENTRIES; i++) {
+            entries.add(new Main.ScheduleEntry(
+                "日程 " + i + " <&>",
+                base.plusDays(i % 365),
+                LocalTime.of(i % 24, i % 60),
+                Main.RepeatRule.values()[i % 3],
+                i % 4 == 0 ? "歌曲 " + i : "",
+                i % 4 == 0 ? "https://music.example/song?id=" + i + "&br=128" : "",
+                ""
+            ));
+        }
+        byte[] xml = encode(entries, XmlCodecBenchmark::domWrite);
+        System.out.printf("%d 条，文件 %.1f MB%n", ENTRIES, xml.length / 1024.0 / 1024.0);
+        if (!sameEntries(entries, ScheduleXmlCodec.read(new ByteArrayInputStream(xml)))
+            || !sameEntries(entries, domRead(new ByteArrayInputStream(encode(entries, ScheduleXmlCodec::write))))) {
+            throw new IllegalStateException("两种实现的结果不一致");
+        }
+
+        System.out.printf("%-6s %-6s %12s %16s%n", "codec", "op", "best(ms)", "alloc/round(MB)");
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            measure(report, "dom", "save", () -> encode(entries, XmlCodecBenchmark::domWrite));
+            measure(report, "stax", "save", () -> encode(entries, ScheduleXmlCodec::write));
+            measure(report, "dom", "load", () -> domRead(new ByteArrayInputStream(xml)));
+            measure(report, "stax", "load", () -> ScheduleXmlCodec.read(new ByteArrayInputStream(xml)));
+        }
+    }
+
+    private interface Task {
+        Object run() throws Exception;
+    }
+
+    private interface Writer {
+        void write(List<Main.ScheduleEntry> entries, OutputStream out) throws Exception;
+    }
+
+    /**
+     * 第一轮只预热；第二轮输出最快一次耗时和平均分配量。
+     */
+    private static void measure(boolean report, String codec, String op, Task task) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        long allocStart = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long alloc = (threads.getThreadAllocatedBytes(tid) - allocStart) / ROUNDS;
+        if (report) {
+            System.out.printf("%-6s %-6s %12.1f %16.1f%n", codec, op, best / 1e6, alloc / 1024.0 / 1024.0);
+        }
+    }
+
+    private static byte[] encode(List<Main.ScheduleEntry> entries, Writer writer) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(entries, out);
+        return out.toByteArray();
+    }
+
+    private static boolean sameEntries(List<Main.ScheduleEntry> expected, List<Main.ScheduleEntry> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!expected.get(i).toJson().equals(actual.get(i).toJson())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ---- 旧版 DOM 实现（照搬自 SchedulerApp.readXml / writeXml） ----
+
+    private static List<Main.ScheduleEntry> domRead(InputStream in) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+        NodeList nodes = doc.getElementsByTagName("entry");
+        List<Main.ScheduleEntry> list = new ArrayList<>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element node = (Element) nodes.item(i);
+            list.add(new Main.ScheduleEntry(
+                text(node, "id"),
+                text(node, "title"),
+                LocalDate.parse(text(node, "date"), Main.SchedulerApp.DATE_FORMAT),
+                LocalTime.parse(text(node, "time"), Main.SchedulerApp.TIME_FORMAT),
+                Main.RepeatRule.valueOf(text(node, "repeat")),
+                text(node, "musicTitle"),
+                text(node, "musicUrl"),
+                text(node, "musicFile")
+            ));
+        }
+        return list;
+    }
+
+    private static void domWrite(List<Main.ScheduleEntry> entries, OutputStream out) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = doc.createElement("schedules");
+        doc.appendChild(root);
+        for (Main.ScheduleEntry entry : entries) {
+            Element node = doc.createElement("entry");
+            appendNode(doc, node, "id", entry.getId());
+            appendNode(doc, node, "title", entry.getTitle());
+            appendNode(doc, node, "date", entry.getDate().format(Main.SchedulerApp.DATE_FORMAT));
+            appendNode(doc, node, "time", entry.getTime().format(Main.SchedulerApp.TIME_FORMAT));
+            appendNode(doc, node, "repeat", entry.getRepeatRule().name());
+            appendNode(doc, node, "musicTitle", entry.getMusicTitle());
+            appendNode(doc, node, "musicUrl", entry.getMusicUrl());
+            appendNode(doc, node, "musicFile", entry.getMusicFile());
+            root.appendChild(node);
+        }
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        transformer.transform(new DOMSource(doc), new StreamResult(out));
+    }
+
+    private static void appendNode(Document doc, Element parent, String name, String value) {
+        Element child = doc.createElement(name);
+        child.appendChild(doc.createTextNode(value));
+        parent.appendChild(child);
+    }
+
+    private static String text(Element element, String tag) {
+        NodeList nodes = element.getElementsByTagName(tag);
+        return nodes.getLength() == 0 ? "" : nodes.item(0).getTextContent();
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台合并保存：变更只标记脏，由单独线程至多每个间隔写一次快照，攒够批量阈值时提前写。
+ * 写出的是写入那一刻日程表的快照，标记之后、写出之前的变更都包含在内。
+ * 一段时间内的所有变更共享同一个 future，需要持久化确认的调用方可以等待它。
+ * 写入失败时该 future 以异常结束，保存器仍视为脏，按指数退避重试，直到写成功为止。
+ */
+final class BackgroundSaver {
+    private static final long MIN_RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private final ScheduleTable source;
+    private final ScheduleJournal.SnapshotWriter writer;
+    private final long intervalMillis;
+    private final int batchThreshold;
+    private CompletableFuture<Void> pending;
+    private int dirtyCount;
+    private boolean urgent;
+    private boolean running = true;
+    private long lastFlushAt;
+    /** 连续失败后下一次写入至少等这么久，成功后清零。 */
+    private long retryDelayMillis;
+    private Thread worker;
+
+    BackgroundSaver(ScheduleTable source, ScheduleJournal.SnapshotWriter writer, long intervalMillis, int batchThreshold) {
+        this.source = source;
+        this.writer = writer;
+        this.intervalMillis = intervalMillis;
+        this.batchThreshold = batchThreshold;
+    }
+
+    /**
+     * 标记有变更，返回下一次落盘完成时结束的 future。
+     */
+    synchronized CompletableFuture<Void> markDirty() {
+        ensureStarted();
+        if (pending == null) {
+            pending = new CompletableFuture<>();
+            // 唤醒空闲等待中的写线程，由它按间隔计时
+            notifyAll();
+        }
+        dirtyCount++;
+        if (dirtyCount >= batchThreshold) {
+            notifyAll();
+        }
+        return pending;
+    }
+
+    /**
+     * 不等间隔，尽快写一次。
+     */
+    synchronized CompletableFuture<Void> flushNow() {
+        CompletableFuture<Void> done = markDirty();
+        urgent = true;
+        notifyAll();
+        return done;
+    }
+
+    /**
+     * 写出剩余变更并停止后台线程。
+     */
+    void close() {
+        try {
+            flushNow().get(10, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            System.err.println("保存失败：" + ex.getMessage());
+        }
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+    }
+
+    private void ensureStarted() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::runLoop, "schedule-saver");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void runLoop() {
+        while (true) {
+            CompletableFuture<Void> batch;
+            synchronized (this) {
+                try {
+                    while (running && pending == null) {
+                        wait();
+                    }
+                    long deadline = lastFlushAt + Math.max(intervalMillis, retryDelayMillis);
+                    // 退避期间攒够批量也不提前写，只有 flushNow 能打断
+                    while (running && !urgent && (retryDelayMillis > 0 || dirtyCount < batchThreshold)) {
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        wait(remaining);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (pending == null) {
+                    return;
+                }
+                batch = pending;
+                pending = null;
+                dirtyCount = 0;
+                urgent = false;
+            }
+            try {
+                writer.write(source.sorted());
+                retryDelayMillis = 0;
+                batch.complete(null);
+            } catch (Exception ex) {
+                retryDelayMillis = Math.min(MAX_RETRY_DELAY_MILLIS, Math.max(MIN_RETRY_DELAY_MILLIS, retryDelayMillis * 2));
+                System.err.println("保存失败，" + retryDelayMillis + " ms 后重试：" + ex.getMessage());
+                batch.completeExceptionally(ex);
+                // 表仍未落盘：重新标记为脏，之后没有新变更也会重试；已关闭时不再重试
+                synchronized (this) {
+                    if (running) {
+                        markDirty();
+                    }
+                }
+            }
+            lastFlushAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-Sent Events 广播：每个事件只编码一次，放入各客户端的有界缓冲；发布从不阻塞，
+ * 缓冲已满的慢客户端被断开（浏览器 EventSource 会自动重连并重新拉取列表）。
+ * 每个连接占用一个 HTTP 处理线程，由它把缓冲中的事件写出，空闲时定期发送心跳以发现断开的连接。
+ * 连接名额按仍在运行的写线程计：被驱逐的客户端若卡在阻塞写里，线程退出前名额不会让给新连接，
+ * 因此 maxClients 要小于 HTTP 执行器的线程数，卡住的连接才不会占满普通请求的线程。
+ */
+final class EventBroadcaster {
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.US_ASCII);
+    /** 关闭连接的标记，不会写出。 */
+    private static final byte[] CLOSE = new byte[0];
+
+    private final int maxClients;
+    private final int bufferEvents;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    /** 仍占着处理线程的连接数，包括已驱逐但写线程尚未退出的。 */
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder evicted = new LongAdder();
+    private volatile boolean closed;
+
+    private static final class Client {
+        final BlockingQueue<byte[]> buffer;
+        volatile boolean gone;
+
+        Client(int capacity) {
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    EventBroadcaster(int maxClients, int bufferEvents) {
+        this.maxClients = maxClients;
+        this.bufferEvents = bufferEvents;
+    }
+
+    /**
+     * 向所有客户端发布一个事件，data 通常为单行 JSON；万一含换行，按 SSE 规范拆成多条 data 行，
+     * 不会被客户端当成新的字段。
+     */
+    void publish(String type, String data) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        String lines = data.indexOf('\n') < 0 && data.indexOf('\r') < 0
+            ? data
+            : String.join("\ndata: ", data.split("\r\n|\r|\n", -1));
+        byte[] event = ("id: " + sequence.incrementAndGet() + "\nevent: " + type + "\ndata: " + lines + "\n\n")
+            .getBytes(StandardCharsets.UTF_8);
+        for (Client client : clients) {
+            if (!client.buffer.offer(event)) {
+                evict(client);
+            }
+        }
+    }
+
+    /**
+     * 在当前 HTTP 处理线程上持续推送，直到客户端断开、被驱逐或广播关闭。
+     */
+    void serve(HttpExchange exchange) throws IOException {
+        if (closed || connections.incrementAndGet() > maxClients) {
+            connections.decrementAndGet();
+            byte[] body = "{\"error\":\"事件连接数已满\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("Retry-After", "30");
+            exchange.sendResponseHeaders(503, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        Client client = new Client(bufferEvents);
+        List<byte[]> pending = new ArrayList<>();
+        try {
+            exchange.sendResponseHeaders(200, 0);
+            clients.add(client);
+            OutputStream out = exchange.getResponseBody();
+            out.write("retry: 3000\n\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            while (!client.gone) {
+                byte[] event = client.buffer.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    out.write(HEARTBEAT);
+                    out.flush();
+                    continue;
+                }
+                pending.add(event);
+                client.buffer.drainTo(pending);
+                for (byte[] item : pending) {
+                    if (item == CLOSE) {
+                        return;
+                    }
+                    out.write(item);
+                }
+                pending.clear();
+                out.flush();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // 客户端断开或被驱逐
+        } finally {
+            client.gone = true;
+            clients.remove(client);
+            exchange.close();
+            connections.decrementAndGet();
+        }
+    }
+
+    String statsJson() {
+        return "{\"clients\":" + clients.size() + ",\"connections\":" + connections.get()
+            + ",\"maxClients\":" + maxClients + ",\"published\":" + sequence.get()
+            + ",\"evicted\":" + evicted.sum() + ",\"buffer\":" + bufferEvents + "}";
+    }
+
+    void writeMetrics(PrometheusText out) {
+        out.gauge("scheduler_events_clients", "SSE 连接数", clients.size());
+        out.gauge("scheduler_events_connections", "占着处理线程的 SSE 连接数（含已驱逐未退出的）", connections.get());
+        out.counter("scheduler_events_published_total", "发布的 SSE 事件数", sequence.get());
+        out.counter("scheduler_events_evicted_total", "因缓冲已满被断开的 SSE 连接数", evicted.sum());
+    }
+
+    void close() {
+        closed = true;
+        for (Client client : clients) {
+            disconnect(client);
+        }
+    }
+
+    private void evict(Client client) {
+        if (disconnect(client)) {
+            evicted.increment();
+        }
+    }
+
+    /**
+     * 清空缓冲并放入关闭标记，由写线程自己关闭交换；发布线程不碰网络，不会被卡住的客户端拖住。
+     * 不在这里跨线程 close：内置 HttpServer 的响应流写入是同步的，卡住的写会连带把关闭也卡住。
+     */
+    private boolean disconnect(Client client) {
+        if (!clients.remove(client)) {
+            return false;
+        }
+        client.gone = true;
+        client.buffer.clear();
+        client.buffer.offer(CLOSE);
+        return true;
+    }
+}
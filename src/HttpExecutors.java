@@ -0,0 +1,178 @@
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内置 HttpServer 的请求执行器。音乐接口会同步等待网易云，每个请求都可能占住线程好几秒：
+ * <ul>
+ *   <li>cached：旧行为，每个并发请求一个平台线程，无上限；</li>
+ *   <li>virtual：每个请求一个虚拟线程，阻塞等待上游不占平台线程。运行时（Java 21 以下）
+ *       不支持时退回 bounded；</li>
+ *   <li>bounded：固定数量的平台线程，多余请求排队。</li>
+ * </ul>
+ * maxConcurrency 大于 0 时限制同时执行的处理器数量：virtual 用信号量，cached / bounded 即线程数。
+ */
+final class HttpExecutors {
+    static final int DEFAULT_BOUNDED_THREADS = 64;
+    private static final int BOUNDED_QUEUE = 10_000;
+
+    private HttpExecutors() {
+    }
+
+    /**
+     * 按 SCHEDULER_HTTP_EXECUTOR（cached | virtual | bounded）和 SCHEDULER_HTTP_MAX_CONCURRENCY 创建。
+     */
+    static ExecutorService fromEnv() {
+        return create(System.getenv("SCHEDULER_HTTP_EXECUTOR"), maxConcurrencyFromEnv());
+    }
+
+    /**
+     * fromEnv() 创建的执行器最多同时运行多少个处理器；0 表示不限。
+     */
+    static int maxHandlersFromEnv() {
+        return maxHandlers(System.getenv("SCHEDULER_HTTP_EXECUTOR"), maxConcurrencyFromEnv());
+    }
+
+    static int maxHandlers(String mode, int maxConcurrency) {
+        if (maxConcurrency > 0) {
+            return maxConcurrency;
+        }
+        boolean bounded = "bounded".equalsIgnoreCase(mode)
+            || "virtual".equalsIgnoreCase(mode) && !supportsVirtualThreads();
+        return bounded ? DEFAULT_BOUNDED_THREADS : 0;
+    }
+
+    private static int maxConcurrencyFromEnv() {
+        String value = System.getenv("SCHEDULER_HTTP_MAX_CONCURRENCY");
+        if (value != null && !value.isBlank()) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException ignored) {
+                // 非法值按不限制处理
+            }
+        }
+        return 0;
+    }
+
+    static ExecutorService create(String mode, int maxConcurrency) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            ExecutorService virtual = newVirtualThreadPerTask();
+            if (virtual != null) {
+                return maxConcurrency > 0 ? new Limited(virtual, maxConcurrency) : virtual;
+            }
+            System.err.println("当前 Java 不支持虚拟线程，HTTP 改用有界线程池");
+            return bounded(maxConcurrency);
+        }
+        if ("bounded".equalsIgnoreCase(mode) || maxConcurrency > 0) {
+            return bounded(maxConcurrency);
+        }
+        return Executors.newCachedThreadPool(platformFactory("http-"));
+    }
+
+    /**
+     * 运行时支持虚拟线程时返回每任务一个虚拟线程的执行器，否则返回 null。
+     * 通过反射调用，保持本项目在 Java 17 上也能编译。
+     */
+    static ExecutorService newVirtualThreadPerTask() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static boolean supportsVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    private static ExecutorService bounded(int threads) {
+        int size = threads > 0 ? threads : DEFAULT_BOUNDED_THREADS;
+        return new ThreadPoolExecutor(
+            size,
+            size,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(BOUNDED_QUEUE),
+            platformFactory("http-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    private static ThreadFactory platformFactory(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * 任务照常交给底层执行器，但在执行前取得许可；虚拟线程等待许可几乎没有代价。
+     */
+    private static final class Limited extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        Limited(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按路由统计 HTTP 请求：挂在每个上下文上的过滤器，记录处理耗时和响应状态码。
+ * 路由取上下文路径而不是请求路径，方法不在常见集合内时记为 OTHER，标签数量有界。
+ * SSE 这类长连接记录的是整个连接的时长。
+ */
+final class HttpMetrics extends Filter {
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    private static final class Route {
+        final String path;
+        final String method;
+        final LatencyStats latency = new LatencyStats();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Route(String path, String method) {
+            this.path = path;
+            this.method = method;
+        }
+    }
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            // 处理器抛出异常且未发出响应时，服务器会直接断开连接，记为 500
+            int status = exchange.getResponseCode();
+            record(exchange.getHttpContext().getPath(), exchange.getRequestMethod(), status < 0 ? 500 : status, start);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "per-route latency and status codes";
+    }
+
+    private void record(String path, String method, int status, long startNanos) {
+        String normalized = METHODS.contains(method) ? method : "OTHER";
+        Route route = routes.computeIfAbsent(path + ' ' + normalized, key -> new Route(path, normalized));
+        route.latency.recordSince(startNanos);
+        route.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    void writeMetrics(PrometheusText out) {
+        Map<String, Route> sorted = new TreeMap<>(routes);
+        for (Route route : sorted.values()) {
+            out.histogram("scheduler_http_request_duration_seconds", "HTTP 请求处理耗时",
+                route.latency, "route", route.path, "method", route.method);
+        }
+        for (Route route : sorted.values()) {
+            for (Map.Entry<Integer, LongAdder> entry : new TreeMap<>(route.statuses).entrySet()) {
+                out.counter("scheduler_http_responses_total", "按状态码统计的 HTTP 响应数", entry.getValue().sum(),
+                    "route", route.path, "method", route.method, "status", Integer.toString(entry.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟统计：次数、总耗时、最大值，以及按 2 的幂纳秒分桶的直方图，用于估算分位数。
+ * 记录路径只有几次 LongAdder 累加，可以放在热点操作里。
+ */
+final class LatencyStats {
+    private static final int BUCKETS = 40;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    LatencyStats() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        count.increment();
+        totalNanos.add(value);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+        long max;
+        while (value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 记录从 startNanos（System.nanoTime）到现在的耗时。
+     */
+    void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    /**
+     * 分位数的上界估计：返回落入该分位的桶的上沿（纳秒）。
+     */
+    long percentileNanos(double quantile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(1L << i, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 第 i 个桶的计数；桶 i 收的是小于 2^i 纳秒、不小于 2^(i-1) 纳秒的值。
+     */
+    long[] bucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    String toJson() {
+        long n = count.sum();
+        return String.format(Locale.ROOT,
+            "{\"count\":%d,\"meanMs\":%.3f,\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f}",
+            n,
+            n == 0 ? 0.0 : totalNanos.sum() / 1e6 / n,
+            percentileNanos(0.50) / 1e6,
+            percentileNanos(0.99) / 1e6,
+            maxNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 日志结构后端：每次变更向 {@link ScheduleJournal} 追加一条记录并批量 fsync，写入代价与日程总数无关；
+ * 日志达到阈值、flush 或退出时把 SchedulerApp 日程表的快照写出，后端自己不保存日程副本。
+ * 启动时先读快照再重放日志。
+ */
+final class LogScheduleStore implements ScheduleStore {
+    private final ScheduleTable source;
+    private final Path journalFile;
+    private final SnapshotFiles files;
+    private final SnapshotFormat format;
+    private final Path legacyXml;
+    private final ScheduleJournal journal;
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * 构造时即打开日志文件，打不开时抛出异常，调用方可以退回快照后端。
+     *
+     * @param source 运行时的日程表，压缩时读取它的快照
+     */
+    LogScheduleStore(ScheduleTable source, Path journalFile, SnapshotFiles files, SnapshotFormat format, Path legacyXml)
+            throws IOException {
+        this.source = source;
+        this.journalFile = journalFile;
+        this.files = files;
+        this.format = format;
+        this.legacyXml = legacyXml;
+        this.journal = new ScheduleJournal(journalFile, source, this::writeSnapshot);
+        journal.open();
+    }
+
+    @Override
+    public String name() {
+        return "journal";
+    }
+
+    /**
+     * 重放成功后立即按重放结果压缩一次，丢掉残缺的尾行；加载失败时不压缩，避免覆盖原文件。
+     */
+    @Override
+    public List<Main.ScheduleEntry> load() throws Exception {
+        long start = System.nanoTime();
+        List<Main.ScheduleEntry> loaded = ScheduleJournal.replay(journalFile, format.load(files, legacyXml));
+        metrics.op("load").recordSince(start);
+        try {
+            journal.rebase(loaded);
+        } catch (Exception ex) {
+            System.err.println("日志压缩失败：" + ex.getMessage());
+        }
+        return loaded;
+    }
+
+    @Override
+    public void upsert(Main.ScheduleEntry entry) {
+        long start = System.nanoTime();
+        journal.upsert(entry);
+        metrics.op("upsert").recordSince(start);
+    }
+
+    @Override
+    public void delete(String id) {
+        long start = System.nanoTime();
+        journal.delete(id);
+        metrics.op("delete").recordSince(start);
+    }
+
+    /**
+     * 整批写成日志中的一行，崩溃时要么全部重放、要么全部忽略。
+     */
+    @Override
+    public void applyBatch(List<ScheduleTable.Change> changes) {
+        long start = System.nanoTime();
+        journal.batch(changes);
+        metrics.op("batch").recordSince(start);
+    }
+
+    /**
+     * 整表替换后不逐条记日志，直接压缩成新快照。
+     */
+    @Override
+    public void replaceAll(Collection<Main.ScheduleEntry> entries) {
+        journal.compact();
+    }
+
+    @Override
+    public List<Main.ScheduleEntry> rangeScan(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        List<Main.ScheduleEntry> range = source.between(from, to);
+        metrics.op("rangeScan").recordSince(start);
+        return range;
+    }
+
+    @Override
+    public CompletableFuture<Void> sync() {
+        return metrics.timed("sync", System.nanoTime(), journal.sync());
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return metrics.timed("flush", System.nanoTime(), journal.compact());
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    @Override
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    private void writeSnapshot(List<Main.ScheduleEntry> entries) throws Exception {
+        long start = System.nanoTime();
+        format.write(files, entries);
+        metrics.op("write").recordSince(start);
+    }
+}
@@ -10,9 +10,10 @@ import java.awt.Toolkit;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -25,18 +26,28 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Calendar;
-import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -62,21 +73,11 @@ import javax.swing.WindowConstants;
 import javax.swing.border.EmptyBorder;
 import javax.swing.text.DateFormatter;
 import javax.imageio.ImageIO;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-
 /**
  * 本地日程提醒工具。
  */
@@ -100,14 +101,29 @@ public class Main {
      * 重复规则。
      */
     enum RepeatRule {
-        NONE("不重复"),
-        DAILY("每天"),
-        WEEKLY("每周");
+        NONE("不重复", null, 0),
+        DAILY("每天", ChronoUnit.DAYS, 1),
+        WEEKLY("每周", ChronoUnit.WEEKS, 1);
 
         private final String label;
+        private final ChronoUnit unit;
+        private final int amount;
 
-        RepeatRule(String label) {
+        RepeatRule(String label, ChronoUnit unit, int amount) {
             this.label = label;
+            this.unit = unit;
+            this.amount = amount;
+        }
+
+        /**
+         * 步长单位，不重复时为 null。
+         */
+        ChronoUnit getUnit() {
+            return unit;
+        }
+
+        int getAmount() {
+            return amount;
         }
 
         @Override
@@ -117,18 +133,19 @@ public class Main {
     }
 
     /**
-     * 日程条目。
+     * 日程条目，不可变；改时间或铃声会生成新实例。
      */
     static final class ScheduleEntry {
         private final String id;
         private final String title;
-        private LocalDate date;
-        private LocalTime time;
+        private final LocalDate date;
+        private final LocalTime time;
         private final RepeatRule repeatRule;
-        private boolean notified;
-        private String musicTitle;
-        private String musicUrl;
-        private String musicFile;
+        private final String musicTitle;
+        private final String musicUrl;
+        private final String musicFile;
+        /** toJson() 的 UTF-8 编码，首次需要时生成；条目不可变，改动产生新实例即等于失效。 */
+        private volatile byte[] jsonBytes;
 
         ScheduleEntry(String title, LocalDate date, LocalTime time, RepeatRule repeatRule) {
             this(UUID.randomUUID().toString(), title, date, time, repeatRule, "", "", "");
@@ -168,7 +185,6 @@ public class Main {
             this.musicTitle = musicTitle == null ? "" : musicTitle;
             this.musicUrl = musicUrl == null ? "" : musicUrl;
             this.musicFile = musicFile == null ? "" : musicFile;
-            this.notified = false;
         }
 
         String getId() {
@@ -195,8 +211,17 @@ public class Main {
             return musicFile;
         }
 
-        void setMusicFile(String musicFile) {
-            this.musicFile = musicFile == null ? "" : musicFile;
+        /**
+         * 各字段都相同（条目不可变，没有重写 equals）。
+         */
+        boolean sameContent(ScheduleEntry other) {
+            return id.equals(other.id) && title.equals(other.title) && date.equals(other.date)
+                && time.equals(other.time) && repeatRule == other.repeatRule && musicTitle.equals(other.musicTitle)
+                && musicUrl.equals(other.musicUrl) && musicFile.equals(other.musicFile);
+        }
+
+        ScheduleEntry withMusicFile(String musicFile) {
+            return new ScheduleEntry(id, title, date, time, repeatRule, musicTitle, musicUrl, musicFile);
         }
 
         java.nio.file.Path getMusicFilePath() {
@@ -206,34 +231,43 @@ public class Main {
             return Paths.get(musicFile);
         }
 
+        LocalDate getDate() {
+            return date;
+        }
+
+        LocalTime getTime() {
+            return time;
+        }
+
         LocalDateTime getDateTime() {
             return LocalDateTime.of(date, time);
         }
 
-        void alignToFuture(LocalDateTime base) {
+        ScheduleEntry alignedTo(LocalDateTime base) {
             if (repeatRule == RepeatRule.NONE) {
-                return;
-            }
-            while (getDateTime().isBefore(base)) {
-                moveToNext();
+                return this;
             }
+            LocalDateTime next = Recurrence.nextOnOrAfter(getDateTime(), repeatRule, base);
+            return next.equals(getDateTime()) ? this : withDateTime(next);
         }
 
-        void moveToNext() {
-            if (repeatRule == RepeatRule.DAILY) {
-                date = date.plusDays(1);
-            } else if (repeatRule == RepeatRule.WEEKLY) {
-                date = date.plusWeeks(1);
+        ScheduleEntry next() {
+            if (repeatRule.getUnit() == null) {
+                return this;
             }
-            notified = false;
+            return withDateTime(getDateTime().plus(repeatRule.getAmount(), repeatRule.getUnit()));
         }
 
-        boolean isNotified() {
-            return notified;
+        private ScheduleEntry withDateTime(LocalDateTime dateTime) {
+            return new ScheduleEntry(
+                id, title, dateTime.toLocalDate(), dateTime.toLocalTime(), repeatRule, musicTitle, musicUrl, musicFile);
         }
 
-        void markNotified() {
-            this.notified = true;
+        /**
+         * 以当前时间为锚点，列出 [from, to) 内的发生时间。
+         */
+        Iterable<LocalDateTime> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+            return Recurrence.occurrencesBetween(getDateTime(), repeatRule, from, to);
         }
 
         String toJson() {
@@ -244,8 +278,46 @@ public class Main {
                 + "\"musicFile\":\"" + escape(musicFile) + "\"}";
         }
 
-        private static String escape(String value) {
-            return value.replace("\\", "\\\\").replace("\"", "\\\"");
+        /**
+         * toJson() 的 UTF-8 字节，按条目缓存；调用方不得修改返回的数组。
+         */
+        byte[] toJsonBytes() {
+            byte[] bytes = jsonBytes;
+            if (bytes == null) {
+                bytes = toJson().getBytes(StandardCharsets.UTF_8);
+                jsonBytes = bytes;
+            }
+            return bytes;
+        }
+
+        /**
+         * JSON 字符串转义；控制字符一律转义，结果不含换行，可以直接放进 SSE 的单行 data 字段。
+         */
+        static String escape(String value) {
+            StringBuilder sb = null;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                String replacement;
+                switch (c) {
+                    case '\\' -> replacement = "\\\\";
+                    case '"' -> replacement = "\\\"";
+                    case '\n' -> replacement = "\\n";
+                    case '\r' -> replacement = "\\r";
+                    case '\t' -> replacement = "\\t";
+                    default -> replacement = c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+                }
+                if (replacement == null) {
+                    if (sb != null) {
+                        sb.append(c);
+                    }
+                    continue;
+                }
+                if (sb == null) {
+                    sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                sb.append(replacement);
+            }
+            return sb == null ? value : sb.toString();
         }
 
         @Override
@@ -262,11 +334,32 @@ public class Main {
         static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
         private static final Path STORAGE = Paths.get("schedule.xml");
+        private static final Path BINARY_STORAGE = Paths.get("schedule.bin");
+        private static final Path JOURNAL = Paths.get("schedule.journal");
+        private static final int BACKUP_GENERATIONS = 3;
+        /** 备份至多每 10 分钟轮转一次，频繁保存不会很快把几代备份都冲成相近的版本。 */
+        private static final long BACKUP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
         private static final int HTTP_PORT = 18080;
         private static final Path DASHBOARD_HTML = Paths.get("neo_brutalism_dashboard.html");
+        /** 前端的其他静态资源（样式、脚本、图片），按 /文件名 访问。 */
+        private static final Path WEB_ROOT = Paths.get("web");
         private static final Path MUSIC_DIR = Paths.get("music");
         private static final Path TRAY_ICON = Paths.get("1762662822056.png");
         private static final int MUSIC_SEARCH_LIMIT = 6;
+        /** 每个投递目标的工作线程数与队列容量。 */
+        private static final int REMINDER_WORKERS = 2;
+        private static final int REMINDER_QUEUE = 64;
+        private static final int MUSIC_DOWNLOAD_WORKERS = 2;
+        private static final int MUSIC_DOWNLOAD_QUEUE = 1024;
+        private static final long SYNC_TIMEOUT_SECONDS = 10;
+        private static final int MAX_PAGE_SIZE = 1000;
+        private static final int SEARCH_DEFAULT_LIMIT = 50;
+        private static final int STREAM_BUFFER_BYTES = 16 * 1024;
+        private static final int MAX_BATCH_SIZE = 50_000;
+        private static final int EVENT_CLIENTS = 64;
+        private static final int EVENT_BUFFER = 256;
+        /** 超过这么多条的批量变更只推送一个 reloaded 事件，避免塞满客户端缓冲。 */
+        private static final int EVENT_BATCH_LIMIT = 32;
 
         private final JFrame frame = new JFrame("日程提醒");
         private final boolean showWindow;
@@ -277,11 +370,40 @@ public class Main {
         private final JSpinner timeSpinner = createTimeSpinner();
         private final JComboBox<RepeatRule> repeatCombo = new JComboBox<>(RepeatRule.values());
         private final JLabel statusLabel = new JLabel("就绪");
-        private final List<ScheduleEntry> entries = new ArrayList<>();
-        private final Object lock = new Object();
+        private final ScheduleTable entries = new ScheduleTable();
+        /**
+         * 改写已有条目（修改、批量、到点滚动、下载回写、重新加载）时，改表与对应的提醒排期在这把锁内成对完成，
+         * 否则两次修改的排期顺序可能与入表顺序相反，调度队列里留下旧版本、新版本永远不响。
+         * 新增和删除不需要：新 id 尚未交给别人，不会有并发写入；删除后即便被并发写入补排了旧版本，
+         * 到点时 {@link #onReminderDue} 发现条目已不在表中会忽略。锁内只做内存操作，通知界面和落盘放在锁外。
+         */
+        private final Object scheduleLock = new Object();
+        /** 版本号每次启动从头计数，ETag 带上启动时刻，避免重启后与浏览器缓存的旧值撞上。 */
+        private final String etagPrefix = Long.toHexString(System.currentTimeMillis());
+        private final ScheduleJsonCache schedulesJson = new ScheduleJsonCache();
+        private final ScheduleSearchIndex search = new ScheduleSearchIndex();
+        private final HttpMetrics httpMetrics = new HttpMetrics();
+        /** 提醒实际触发时刻相对计划时刻的延迟。 */
+        private final LatencyStats reminderLag = new LatencyStats();
+        private final EventBroadcaster events = new EventBroadcaster(eventClients(), EVENT_BUFFER);
+        /** 到期滚动产生的新条目，变更监听据此推送 rolled 而不是 updated。 */
+        private final Set<ScheduleEntry> rollingForward = ConcurrentHashMap.newKeySet();
+        private final StaticAssets assets = new StaticAssets(
+            WEB_ROOT,
+            "<html><body><h2>找不到 neo_brutalism_dashboard.html </h2><p>请确保文件位于当前工作目录。</p></body></html>"
+        ).mount("/", DASHBOARD_HTML).mount("/index.html", DASHBOARD_HTML);
         private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new DaemonFactory());
+        private final ReminderEngine reminders = createReminderEngine();
+        private final ReminderDispatcher dispatcher = createDispatcher();
+        private final ScheduleStore store = createStore(entries);
         private final MusicService musicService = new MusicService(MUSIC_DIR);
         private final Mp3Player mp3Player = new Mp3Player();
+        private final MusicDownloadQueue downloads = new MusicDownloadQueue(
+            MUSIC_DOWNLOAD_WORKERS,
+            MUSIC_DOWNLOAD_QUEUE,
+            musicService::downloadMusic,
+            this::onMusicDownloaded
+        );
         private HttpServer httpServer;
         private TrayIconWrapper trayIconWrapper;
         private boolean browserOpened = false;
@@ -294,6 +416,84 @@ public class Main {
             refreshListModel();
             startHttpServer();
             startReminderLoop();
+            startWatching();
+        }
+
+        /**
+         * SCHEDULER_ENGINE=wheel 时使用分层时间轮，默认为按时间排序的事件队列。
+         */
+        private ReminderEngine createReminderEngine() {
+            if ("wheel".equalsIgnoreCase(System.getenv("SCHEDULER_ENGINE"))) {
+                return new TimingWheelScheduler(executor, this::onReminderDue);
+            }
+            return new ReminderScheduler(executor, this::onReminderDue);
+        }
+
+        /**
+         * 铃声、托盘、弹窗、事件推送各用自己的线程和队列，慢下载只积压铃声队列。
+         */
+        private ReminderDispatcher createDispatcher() {
+            return new ReminderDispatcher(REMINDER_WORKERS, REMINDER_QUEUE, List.of(
+                ReminderDispatcher.Sink.of("audio", this::playAudioForEntry),
+                ReminderDispatcher.Sink.of("tray", entry -> {
+                    if (trayIconWrapper != null && trayIconWrapper.isSupported()) {
+                        trayIconWrapper.showReminder(entry);
+                    }
+                }),
+                ReminderDispatcher.Sink.of("dialog", entry -> SwingUtilities.invokeLater(() -> showReminderDialog(entry))),
+                ReminderDispatcher.Sink.of("events", entry -> events.publish("fired", entry.toJson()))
+            ));
+        }
+
+        /**
+         * SCHEDULER_STORAGE 选择持久化后端：memory、journal，默认为全量快照；
+         * SCHEDULER_SNAPSHOT=binary 时快照改为内存映射加载的 schedule.bin，XML 只用于导入导出。
+         * 后端保存时读取 source 的快照，不另存日程副本。
+         */
+        private static ScheduleStore createStore(ScheduleTable source) {
+            String kind = System.getenv("SCHEDULER_STORAGE");
+            if ("memory".equalsIgnoreCase(kind)) {
+                return new MemoryScheduleStore(source);
+            }
+            boolean binary = "binary".equalsIgnoreCase(System.getenv("SCHEDULER_SNAPSHOT"));
+            SnapshotFormat format = binary ? SnapshotFormat.BINARY : SnapshotFormat.XML;
+            SnapshotFiles files = new SnapshotFiles(binary ? BINARY_STORAGE : STORAGE, BACKUP_GENERATIONS, BACKUP_INTERVAL_MILLIS);
+            Path legacyXml = binary ? STORAGE : null;
+            if ("journal".equalsIgnoreCase(kind)) {
+                try {
+                    return new LogScheduleStore(source, JOURNAL, files, format, legacyXml);
+                } catch (IOException ex) {
+                    System.err.println("日志启动失败，改用全量快照保存：" + ex.getMessage());
+                }
+            }
+            return new SnapshotScheduleStore(
+                source,
+                files,
+                format,
+                legacyXml,
+                envLong("SCHEDULER_SAVE_INTERVAL_MS", 500),
+                (int) envLong("SCHEDULER_SAVE_BATCH", 200)
+            );
+        }
+
+        /**
+         * 每个 SSE 连接占一个处理线程；执行器有上限时至多用掉一半，其余留给普通请求。
+         */
+        private static int eventClients() {
+            int handlers = HttpExecutors.maxHandlersFromEnv();
+            return handlers > 0 ? Math.min(EVENT_CLIENTS, handlers / 2) : EVENT_CLIENTS;
+        }
+
+        private static long envLong(String name, long defaultValue) {
+            String value = System.getenv(name);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                return defaultValue;
+            }
         }
 
         void maybeShowWindow() {
@@ -415,13 +615,11 @@ public class Main {
             LocalTime time = toLocalTime((Date) timeSpinner.getValue());
             RepeatRule repeatRule = (RepeatRule) repeatCombo.getSelectedItem();
 
-            ScheduleEntry entry = new ScheduleEntry(title, date, time, repeatRule);
-            entry.alignToFuture(LocalDateTime.now());
-            synchronized (lock) {
-                entries.add(entry);
-            }
+            ScheduleEntry entry = new ScheduleEntry(title, date, time, repeatRule).alignedTo(LocalDateTime.now());
+            entries.put(entry);
+            reminders.schedule(entry);
             refreshListModel();
-            saveSafe();
+            persistChange();
             statusLabel.setText("已添加：" + title);
         }
 
@@ -430,73 +628,191 @@ public class Main {
             if (selected == null) {
                 return;
             }
-            synchronized (lock) {
-                entries.remove(selected);
+            if (entries.remove(selected.getId()) != null) {
+                reminders.cancel(selected.getId());
             }
             refreshListModel();
-            saveSafe();
+            persistChange();
             statusLabel.setText("已删除：" + selected.getTitle());
         }
 
         private void refreshListModel() {
             SwingUtilities.invokeLater(() -> {
                 listModel.clear();
-                synchronized (lock) {
-                    entries.sort(Comparator.comparing(ScheduleEntry::getDateTime));
-                    for (ScheduleEntry entry : entries) {
-                        listModel.addElement(entry);
-                    }
+                for (ScheduleEntry entry : entries.sorted()) {
+                    listModel.addElement(entry);
                 }
             });
         }
 
         private void loadFromDisk() {
-            if (!Files.exists(STORAGE)) {
+            List<ScheduleEntry> aligned = List.of();
+            boolean changed = false;
+            // 先于加载挂上，由 reloaded 建立初始索引
+            entries.addListener(search);
+            try {
+                List<ScheduleEntry> loaded = store.load();
+                LocalDateTime now = LocalDateTime.now();
+                aligned = new ArrayList<>(loaded.size());
+                for (ScheduleEntry entry : loaded) {
+                    ScheduleEntry next = entry.alignedTo(now);
+                    changed |= next != entry;
+                    aligned.add(next);
+                }
+                entries.replaceAll(aligned);
+                if (changed) {
+                    store.replaceAll(aligned);
+                }
+                updateStatus("已加载 " + loaded.size() + " 条日程（" + store.name() + "）");
+            } catch (Exception ex) {
+                updateStatus("加载失败，已忽略文件");
+            }
+            entries.addListener(store.asListener());
+            entries.addListener(eventListener());
+            entries.addListener(musicFileCleaner());
+            int missing = 0;
+            for (ScheduleEntry entry : aligned) {
+                if (needsMusicDownload(entry)) {
+                    downloads.enqueue(entry);
+                    missing++;
+                }
+            }
+            if (missing > 0) {
+                updateStatus("后台下载 " + missing + " 首铃声");
+            }
+        }
+
+        /**
+         * SCHEDULER_WATCH=true 时监视快照文件，外部修改后增量应用到日程表，无需重启。
+         */
+        private void startWatching() {
+            if (!Boolean.parseBoolean(System.getenv("SCHEDULER_WATCH"))) {
                 return;
             }
             try {
-                List<ScheduleEntry> loaded = readXml();
-                LocalDateTime now = LocalDateTime.now();
-                boolean downloaded = false;
-                synchronized (lock) {
-                    entries.clear();
-                    for (ScheduleEntry entry : loaded) {
-                        entry.alignToFuture(now);
-                        entries.add(entry);
+                if (!store.watch(this::applyExternalChange)) {
+                    updateStatus("当前存储后端（" + store.name() + "）不支持热加载");
+                }
+            } catch (IOException ex) {
+                updateStatus("快照监视启动失败：" + ex.getMessage());
+            }
+        }
+
+        /**
+         * 按 id 与内存比对：只对新增、删除和内容变化的条目改表和重新排期，不做全量重建。
+         */
+        private void applyExternalChange(List<ScheduleEntry> fresh) {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, ScheduleEntry> byId = new HashMap<>(fresh.size() * 2);
+            for (ScheduleEntry entry : fresh) {
+                byId.put(entry.getId(), entry.alignedTo(now));
+            }
+            int added = 0;
+            int changed = 0;
+            int removed = 0;
+            synchronized (scheduleLock) {
+                for (ScheduleEntry current : entries.sorted()) {
+                    if (!byId.containsKey(current.getId()) && entries.remove(current.getId()) != null) {
+                        reminders.cancel(current.getId());
+                        removed++;
                     }
                 }
-                for (ScheduleEntry entry : loaded) {
-                    if (maybeDownloadMusic(entry)) {
-                        downloaded = true;
+                for (ScheduleEntry entry : byId.values()) {
+                    ScheduleEntry current = entries.get(entry.getId());
+                    if (current != null && current.sameContent(entry)) {
+                        continue;
+                    }
+                    entries.put(entry);
+                    reminders.schedule(entry);
+                    if (needsMusicDownload(entry)) {
+                        downloads.enqueue(entry);
+                    }
+                    if (current == null) {
+                        added++;
+                    } else {
+                        changed++;
                     }
                 }
-                if (downloaded) {
-                    saveSafe();
+            }
+            if (added + changed + removed > 0) {
+                refreshListModel();
+                persistChange();
+            }
+            updateStatus("已重新加载：新增 " + added + "，修改 " + changed + "，删除 " + removed);
+        }
+
+        /**
+         * 后台下载完成：仅当日程仍在且铃声地址未变时写回本地路径，并用新条目重新排期。
+         */
+        private void onMusicDownloaded(ScheduleEntry original, String saved) {
+            synchronized (scheduleLock) {
+                ScheduleEntry current = entries.get(original.getId());
+                if (current == null || !current.getMusicUrl().equals(original.getMusicUrl())) {
+                    // 被删除或换了地址的任务，下载的文件没有条目引用
+                    discardMusicFile(original.getId(), saved);
+                    return;
                 }
-                updateStatus("已加载 " + loaded.size() + " 条日程");
-            } catch (Exception ex) {
-                updateStatus("加载失败，已忽略文件");
+                ScheduleEntry updated = current.withMusicFile(saved);
+                entries.replace(current, updated);
+                reminders.schedule(updated);
             }
+            persistChange();
+        }
+
+        /**
+         * 日程变更后的持久化，不在调用线程做磁盘 I/O：变更已经由表监听转给存储后端，
+         * 这里只取其落盘 future。返回的 future 在本次变更落盘后结束。
+         */
+        private CompletableFuture<Void> persistChange() {
+            CompletableFuture<Void> done = store.sync();
+            done.whenComplete((ignored, ex) -> {
+                if (ex != null) {
+                    updateStatus("保存失败：" + ex.getMessage());
+                }
+            });
+            return done;
         }
 
         private void saveSafe() {
+            CompletableFuture<Void> done = store.flush();
+            done.whenComplete((ignored, ex) -> updateStatus(ex == null ? "已保存" : "保存失败：" + ex.getMessage()));
+        }
+
+        /**
+         * 请求带 sync=true 时等待本次变更落盘再响应。
+         */
+        private boolean awaitDurable(HttpExchange exchange, CompletableFuture<Void> persisted) throws IOException {
+            if (!"true".equalsIgnoreCase(queryValue(exchange.getRequestURI().getQuery(), "sync"))) {
+                return true;
+            }
             try {
-                writeXml();
-                updateStatus("已保存");
+                persisted.get(SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return true;
             } catch (Exception ex) {
-                updateStatus("保存失败：" + ex.getMessage());
+                sendResponse(exchange, 500, "{\"error\":\"保存失败\"}", "application/json");
+                return false;
             }
         }
 
         private void startHttpServer() {
             try {
                 httpServer = HttpServer.create(new InetSocketAddress(HTTP_PORT), 0);
-                httpServer.createContext("/", this::handleIndex);
-                httpServer.createContext("/api/schedules", this::handleSchedules);
-                httpServer.createContext("/api/music/search", this::handleMusicSearch);
-                httpServer.createContext("/api/music/comments", this::handleMusicComments);
-                httpServer.createContext("/api/music/lyric", this::handleMusicLyric);
-                httpServer.setExecutor(Executors.newCachedThreadPool(new DaemonFactory()));
+                route("/", assets::handle);
+                route("/api/schedules", this::handleSchedules);
+                route("/api/schedules/export", this::handleSchedulesExport);
+                route("/api/schedules/batch", this::handleSchedulesBatch);
+                route("/api/schedules/search", this::handleSchedulesSearch);
+                route("/api/events", this::handleEvents);
+                route("/api/events/stats", this::handleEventStats);
+                route("/api/jobs/", this::handleJob);
+                route("/api/reminders/stats", this::handleReminderStats);
+                route("/api/store/stats", this::handleStoreStats);
+                route("/api/music/search", this::handleMusicSearch);
+                route("/api/music/downloads", this::handleMusicDownloads);
+                route("/api/music/comments", this::handleMusicComments);
+                route("/api/music/lyric", this::handleMusicLyric);
+                route("/api/metrics", this::handleMetrics);
+                httpServer.setExecutor(HttpExecutors.fromEnv());
                 httpServer.start();
                 updateStatus("HTTP 服务已启用: http://localhost:" + HTTP_PORT);
                 openBrowserIfSupported();
@@ -505,6 +821,13 @@ public class Main {
             }
         }
 
+        /**
+         * 注册上下文并挂上 HTTP 统计过滤器。
+         */
+        private void route(String path, HttpHandler handler) {
+            httpServer.createContext(path, handler).getFilters().add(httpMetrics);
+        }
+
         private void openBrowserIfSupported() {
             if (browserOpened) {
                 return;
@@ -524,31 +847,226 @@ public class Main {
             }
         }
 
-        private void handleIndex(HttpExchange exchange) throws IOException {
-            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
-                return;
-            }
-            String html;
-            if (Files.exists(DASHBOARD_HTML)) {
-                html = Files.readString(DASHBOARD_HTML, StandardCharsets.UTF_8);
-            } else {
-                html = "<html><body><h2>找不到 neo_brutalism_dashboard.html </h2>"
-                    + "<p>请确保文件位于当前工作目录。</p></body></html>";
-            }
-            sendResponse(exchange, 200, html, "text/html; charset=utf-8");
-        }
-
         private void handleSchedules(HttpExchange exchange) throws IOException {
             String method = exchange.getRequestMethod();
             switch (method) {
                 case "GET" -> handleSchedulesGet(exchange);
                 case "POST" -> handleSchedulesPost(exchange);
+                case "PUT", "PATCH" -> handleSchedulesUpdate(exchange, "PUT".equals(method));
                 case "DELETE" -> handleSchedulesDelete(exchange);
                 default -> sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
             }
         }
 
+        /**
+         * 按标题和铃声名检索：?q=关键词&limit=N（默认 50，上限 1000），按相关度排序返回日程数组。
+         */
+        private void handleSchedulesSearch(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            String query = exchange.getRequestURI().getRawQuery();
+            String q = queryParam(query, "q");
+            if (q == null || ScheduleSearchIndex.normalize(q).isEmpty()) {
+                sendResponse(exchange, 400, "{\"error\":\"缺少 q\"}", "application/json");
+                return;
+            }
+            int limit;
+            try {
+                String limitParam = queryParam(query, "limit");
+                limit = limitParam == null ? SEARCH_DEFAULT_LIMIT : Math.min(MAX_PAGE_SIZE, Integer.parseInt(limitParam));
+            } catch (NumberFormatException ex) {
+                limit = 0;
+            }
+            if (limit <= 0) {
+                sendResponse(exchange, 400, "{\"error\":\"limit 必须为正数\"}", "application/json");
+                return;
+            }
+            sendResponse(exchange, 200, ScheduleJsonCache.assemble(search.search(q, limit)), "application/json; charset=utf-8");
+        }
+
+        /**
+         * 以 schedule.xml 格式导出全部日程，二进制快照模式下用于备份或迁移。
+         */
+        private void handleSchedulesExport(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ScheduleXmlCodec.write(entries.sorted(), out);
+            } catch (Exception ex) {
+                sendResponse(exchange, 500, "{\"error\":\"导出失败\"}", "application/json");
+                return;
+            }
+            sendResponse(exchange, 200, out.toString(StandardCharsets.UTF_8), "application/xml; charset=utf-8");
+        }
+
+        /**
+         * SSE 推送：created / updated / rolled / deleted / reloaded 携带条目或 id，fired 为到点的提醒。
+         * 连接占用一个处理线程直到断开。
+         */
+        private void handleEvents(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            events.serve(exchange);
+        }
+
+        /**
+         * GET /api/jobs/{id}：后台任务状态 {id,type,entryId,state,attempts,maxAttempts,error,musicFile,createdAt,updatedAt}。
+         */
+        private void handleJob(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            String id = exchange.getRequestURI().getPath().substring("/api/jobs/".length());
+            MusicDownloadQueue.Job job = downloads.job(id);
+            if (job == null) {
+                sendResponse(exchange, 404, "{\"error\":\"未找到\"}", "application/json");
+                return;
+            }
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            sendResponse(exchange, 200, job.toJson(), "application/json; charset=utf-8");
+        }
+
+        private void handleEventStats(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            sendResponse(exchange, 200, events.statsJson(), "application/json; charset=utf-8");
+        }
+
+        /**
+         * 日程删除或换了铃声文件后，旧的下载文件不再被引用，交给后台线程删除。
+         */
+        private ScheduleTable.Listener musicFileCleaner() {
+            return new ScheduleTable.Listener() {
+                @Override
+                public void upserted(ScheduleEntry previous, ScheduleEntry current) {
+                    if (previous != null && !previous.getMusicFile().equals(current.getMusicFile())) {
+                        discardMusicFileLater(previous);
+                    }
+                }
+
+                @Override
+                public void removed(ScheduleEntry previous) {
+                    discardMusicFileLater(previous);
+                }
+            };
+        }
+
+        private void discardMusicFileLater(ScheduleEntry previous) {
+            if (previous.getMusicFile().isBlank()) {
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    synchronized (scheduleLock) {
+                        discardMusicFile(previous.getId(), previous.getMusicFile());
+                    }
+                });
+            } catch (RejectedExecutionException ignored) {
+                // 正在退出
+            }
+        }
+
+        /**
+         * 在 scheduleLock 内调用：日程已删除，或它当前的铃声文件和地址都对应不上 file 时删除 file。
+         * 地址仍对应同一文件名时保留，它可能正被重新下载。
+         */
+        private void discardMusicFile(String entryId, String file) {
+            ScheduleEntry current = entries.get(entryId);
+            if (current != null && (file.equals(current.getMusicFile())
+                || file.endsWith(musicService.downloadFileName(entryId, current.getMusicUrl())))) {
+                return;
+            }
+            musicService.deleteDownloaded(entryId, file);
+        }
+
+        /**
+         * 把日程表的变更转成 SSE 事件；在表的写锁内回调，publish 只入各客户端缓冲，不会阻塞。
+         */
+        private ScheduleTable.Listener eventListener() {
+            return new ScheduleTable.Listener() {
+                @Override
+                public void upserted(ScheduleEntry previous, ScheduleEntry current) {
+                    String type = previous == null ? "created" : rollingForward.remove(current) ? "rolled" : "updated";
+                    events.publish(type, current.toJson());
+                }
+
+                @Override
+                public void removed(ScheduleEntry previous) {
+                    events.publish("deleted", "{\"id\":\"" + ScheduleEntry.escape(previous.getId()) + "\"}");
+                }
+
+                @Override
+                public void reloaded(List<ScheduleEntry> all) {
+                    events.publish("reloaded", "{\"count\":" + all.size() + "}");
+                }
+
+                @Override
+                public void applied(List<ScheduleTable.Change> changes) {
+                    if (changes.size() > EVENT_BATCH_LIMIT) {
+                        events.publish("reloaded", "{\"count\":" + entries.size() + "}");
+                    } else {
+                        ScheduleTable.Listener.super.applied(changes);
+                    }
+                }
+            };
+        }
+
+        private void handleReminderStats(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            sendResponse(exchange, 200, dispatcher.statsJson(), "application/json; charset=utf-8");
+        }
+
+        /**
+         * Prometheus 文本格式的全部指标：HTTP、提醒、存储、音乐服务、下载、播放、事件推送。
+         */
+        private void handleMetrics(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            PrometheusText out = new PrometheusText();
+            httpMetrics.writeMetrics(out);
+            out.histogram("scheduler_reminder_lag_seconds", "提醒实际触发相对计划时刻的延迟", reminderLag);
+            dispatcher.writeMetrics(out);
+            out.gauge("scheduler_schedules", "日程条数", entries.size());
+            store.metrics().writeMetrics(out, store.name());
+            musicService.writeMetrics(out);
+            downloads.writeMetrics(out);
+            mp3Player.writeMetrics(out);
+            events.writeMetrics(out);
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            sendResponse(exchange, 200, out.toString(), PrometheusText.CONTENT_TYPE);
+        }
+
+        private void handleStoreStats(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            sendResponse(exchange, 200, store.metrics().toJson(store.name()), "application/json; charset=utf-8");
+        }
+
+        private void handleMusicDownloads(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            sendResponse(exchange, 200, downloads.statsJson(), "application/json; charset=utf-8");
+        }
+
         private void handleMusicSearch(HttpExchange exchange) throws IOException {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
                 sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
@@ -612,48 +1130,403 @@ public class Main {
             sendResponse(exchange, 200, body, "application/json; charset=utf-8");
         }
 
+        /**
+         * ETag 取自日程表版本号，If-None-Match 命中时直接 304，不读取任何条目。
+         * 不带参数时写出该版本缓存的响应体；带 from / to / limit / cursor 时按时间索引取片段，
+         * 以 chunked 方式逐条写出，下一页的游标放在 X-Next-Cursor 响应头。
+         */
         private void handleSchedulesGet(HttpExchange exchange) throws IOException {
-            StringBuilder sb = new StringBuilder("[");
-            synchronized (lock) {
-                for (int i = 0; i < entries.size(); i++) {
-                    if (i > 0) {
-                        sb.append(',');
-                    }
-                    sb.append(entries.get(i).toJson());
+            String query = exchange.getRequestURI().getRawQuery();
+            ScheduleTable.Versioned current = entries.versioned();
+            String etag = "\"" + etagPrefix + "-" + current.version + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if (StaticAssets.etagMatches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            if (queryValue(query, "from") == null && queryValue(query, "to") == null
+                && queryValue(query, "limit") == null && queryValue(query, "cursor") == null) {
+                sendResponse(exchange, 200, schedulesJson.body(current), "application/json; charset=utf-8");
+                return;
+            }
+
+            List<ScheduleEntry> page;
+            int limit;
+            try {
+                LocalDateTime from = parseBound(queryParam(query, "from"), LocalDateTime.of(LocalDate.MIN, LocalTime.MIN));
+                LocalDateTime to = parseBound(queryParam(query, "to"), LocalDateTime.of(LocalDate.MAX, LocalTime.MAX));
+                String limitParam = queryParam(query, "limit");
+                limit = limitParam == null ? MAX_PAGE_SIZE : Math.min(MAX_PAGE_SIZE, Integer.parseInt(limitParam));
+                if (limit <= 0) {
+                    throw new IllegalArgumentException("limit 必须为正数");
+                }
+                page = entries.between(from, to);
+                String cursor = queryParam(query, "cursor");
+                if (cursor != null) {
+                    page = ScheduleTable.after(page, decodeCursor(cursor));
                 }
+            } catch (RuntimeException ex) {
+                sendResponse(exchange, 400, "{\"error\":\"参数错误：from/to 为 yyyy-MM-dd 或 yyyy-MM-ddTHH:mm，limit 为正整数，cursor 取自 X-Next-Cursor\"}", "application/json");
+                return;
             }
-            sb.append(']');
-            sendResponse(exchange, 200, sb.toString(), "application/json; charset=utf-8");
+            if (page.size() > limit) {
+                page = page.subList(0, limit);
+                exchange.getResponseHeaders().set("X-Next-Cursor", encodeCursor(page.get(limit - 1)));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), STREAM_BUFFER_BYTES)) {
+                ScheduleJsonCache.writeArray(page, out);
+            }
+        }
+
+        /**
+         * 时间边界可只写日期（取当天 00:00）；缺省时不设限。
+         */
+        private static LocalDateTime parseBound(String value, LocalDateTime unbounded) {
+            if (value == null || value.isBlank()) {
+                return unbounded;
+            }
+            return value.length() <= 10 ? LocalDate.parse(value, DATE_FORMAT).atStartOfDay() : LocalDateTime.parse(value);
+        }
+
+        /**
+         * 游标记录上一页最后一条的排序键（日期、时间、id），翻页期间条目增删也不会跳过或重复。
+         */
+        private static String encodeCursor(ScheduleEntry last) {
+            String key = last.getDateTime() + "|" + last.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static ScheduleEntry decodeCursor(String cursor) {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int bar = key.indexOf('|');
+            if (bar < 0) {
+                throw new IllegalArgumentException("cursor");
+            }
+            LocalDateTime at = LocalDateTime.parse(key.substring(0, bar));
+            return new ScheduleEntry(key.substring(bar + 1), "", at.toLocalDate(), at.toLocalTime(), RepeatRule.NONE);
+        }
+
+        private String queryParam(String rawQuery, String key) {
+            String value = queryValue(rawQuery, key);
+            return value == null ? null : URLDecoder.decode(value, StandardCharsets.UTF_8);
         }
 
+        /**
+         * 新建日程立即返回，不等铃声下载：需要下载时交给后台任务，返回 202，
+         * Location / X-Job-Id 指向 /api/jobs/{id}，完成后日程的 musicFile 自动更新；否则返回 201。
+         */
         private void handleSchedulesPost(HttpExchange exchange) throws IOException {
             String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
             Map<String, Object> payload = parseJsonMap(body);
+            ScheduleEntry entry;
+            try {
+                entry = parseNewEntry(payload);
+            } catch (RuntimeException ex) {
+                sendResponse(exchange, 400, "{\"error\":\"" + ScheduleEntry.escape(String.valueOf(ex.getMessage())) + "\"}", "application/json");
+                return;
+            }
+            entry = entry.alignedTo(LocalDateTime.now());
+            entries.put(entry);
+            reminders.schedule(entry);
+            // 先入表再排队，下载完成时才找得到这条日程
+            MusicDownloadQueue.Job job = needsMusicDownload(entry) ? downloads.enqueue(entry) : null;
+            refreshListModel();
+            if (!awaitDurable(exchange, persistChange())) {
+                return;
+            }
+            if (job != null) {
+                exchange.getResponseHeaders().set("Location", "/api/jobs/" + job.id);
+                exchange.getResponseHeaders().set("X-Job-Id", job.id);
+            }
+            sendResponse(exchange, job != null ? 202 : 201, entry.toJsonBytes(), "application/json; charset=utf-8");
+        }
+
+        /**
+         * 由请求字段构造新日程（新 id）；repeat 缺省或无法识别时按不重复处理。
+         */
+        private ScheduleEntry parseNewEntry(Map<String, Object> payload) {
             String title = str(payload.get("title"));
             String dateStr = str(payload.get("date"));
             String timeStr = str(payload.get("time"));
             String repeatStr = str(payload.get("repeat"));
-            String musicTitle = str(payload.get("musicTitle"));
-            String musicUrl = str(payload.get("musicUrl"));
             if (title.isBlank() || dateStr.isBlank() || timeStr.isBlank()) {
-                sendResponse(exchange, 400, "{\"error\":\"title/date/time 不能为空\"}", "application/json");
-                return;
+                throw new IllegalArgumentException("title/date/time 不能为空");
             }
-            RepeatRule repeatRule = RepeatRule.NONE;
+            RepeatRule repeatRule;
             try {
                 repeatRule = repeatStr.isBlank() ? RepeatRule.NONE : RepeatRule.valueOf(repeatStr);
             } catch (IllegalArgumentException ignored) {
                 repeatRule = RepeatRule.NONE;
             }
-            ScheduleEntry entry = new ScheduleEntry(title, LocalDate.parse(dateStr, DATE_FORMAT), LocalTime.parse(timeStr, TIME_FORMAT), repeatRule, musicTitle, musicUrl, "");
-            entry.alignToFuture(LocalDateTime.now());
-            maybeDownloadMusic(entry);
-            synchronized (lock) {
-                entries.add(entry);
+            return new ScheduleEntry(
+                title,
+                parseDate(dateStr),
+                parseTime(timeStr),
+                repeatRule,
+                str(payload.get("musicTitle")),
+                str(payload.get("musicUrl")),
+                ""
+            );
+        }
+
+        /**
+         * 在 base 上修改请求中出现的字段，其余保持不变；铃声地址改变时清空本地文件，由后台重新下载。
+         */
+        private ScheduleEntry applyFields(ScheduleEntry base, Map<String, Object> fields) {
+            String title = fields.containsKey("title") ? str(fields.get("title")) : base.getTitle();
+            if (title.isBlank()) {
+                throw new IllegalArgumentException("title 不能为空");
+            }
+            LocalDate date = fields.containsKey("date") ? parseDate(str(fields.get("date"))) : base.getDate();
+            LocalTime time = fields.containsKey("time") ? parseTime(str(fields.get("time"))) : base.getTime();
+            RepeatRule repeatRule = base.getRepeatRule();
+            if (fields.containsKey("repeat")) {
+                try {
+                    repeatRule = RepeatRule.valueOf(str(fields.get("repeat")));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("repeat 只能是 NONE/DAILY/WEEKLY");
+                }
+            }
+            String musicTitle = fields.containsKey("musicTitle") ? str(fields.get("musicTitle")) : base.getMusicTitle();
+            String musicUrl = fields.containsKey("musicUrl") ? str(fields.get("musicUrl")) : base.getMusicUrl();
+            String musicFile = musicUrl.equals(base.getMusicUrl()) ? base.getMusicFile() : "";
+            return new ScheduleEntry(base.getId(), title, date, time, repeatRule, musicTitle, musicUrl, musicFile)
+                .alignedTo(LocalDateTime.now());
+        }
+
+        private static LocalDate parseDate(String value) {
+            try {
+                return LocalDate.parse(value, DATE_FORMAT);
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("date 格式应为 yyyy-MM-dd");
+            }
+        }
+
+        private static LocalTime parseTime(String value) {
+            try {
+                return LocalTime.parse(value, TIME_FORMAT);
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("time 格式应为 HH:mm");
+            }
+        }
+
+        /**
+         * 批量增删改：body 为操作数组（或 {"operations":[...]}），每项 op 为 create / update / delete，
+         * update / delete 需带 id，update 只改出现的字段。整批原子生效：任何一项无效时全部不生效，
+         * 返回 400（目标不存在为 404）；成功时日程表只发布一次、提醒只重排一次、只落盘一次，
+         * 缺失的铃声交给后台下载。响应按顺序给出每项结果。
+         */
+        private void handleSchedulesBatch(HttpExchange exchange) throws IOException {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Method Not Allowed", "text/plain");
+                return;
+            }
+            List<?> items;
+            try {
+                Object parsed = MiniJson.parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                if (parsed instanceof Map<?, ?> wrapper) {
+                    parsed = wrapper.get("operations");
+                }
+                items = parsed instanceof List<?> list ? list : null;
+            } catch (RuntimeException ex) {
+                items = null;
+            }
+            if (items == null) {
+                sendResponse(exchange, 400, "{\"error\":\"body 应为操作数组\"}", "application/json");
+                return;
+            }
+            if (items.size() > MAX_BATCH_SIZE) {
+                sendResponse(exchange, 413, "{\"error\":\"单批最多 " + MAX_BATCH_SIZE + " 项\"}", "application/json");
+                return;
+            }
+
+            List<BatchOp> ops = new ArrayList<>(items.size());
+            String[] errors = new String[items.size()];
+            boolean invalid = false;
+            for (int i = 0; i < items.size(); i++) {
+                Map<String, Object> item = items.get(i) instanceof Map<?, ?> ? parseJsonMapValue(items.get(i)) : Map.of();
+                String op = str(item.get("op")).toLowerCase(Locale.ROOT);
+                String id = str(item.get("id"));
+                try {
+                    switch (op) {
+                        case "create" -> {
+                            ScheduleEntry created = parseNewEntry(item).alignedTo(LocalDateTime.now());
+                            ops.add(new BatchOp(op, created.getId(), current -> created));
+                        }
+                        case "update" -> ops.add(new BatchOp(op, requireId(id), current -> applyFields(existing(current), item)));
+                        case "delete" -> ops.add(new BatchOp(op, requireId(id), current -> {
+                            existing(current);
+                            return null;
+                        }));
+                        default -> throw new IllegalArgumentException("op 只能是 create/update/delete");
+                    }
+                } catch (RuntimeException ex) {
+                    errors[i] = String.valueOf(ex.getMessage());
+                    ops.add(new BatchOp(op, id, null));
+                    invalid = true;
+                }
+            }
+            if (invalid) {
+                sendResponse(exchange, 400, batchResults(ops, errors, 0), "application/json; charset=utf-8");
+                return;
+            }
+
+            List<ScheduleTable.Change> changes;
+            int status = 0;
+            List<ScheduleEntry> scheduled = new ArrayList<>();
+            List<String> cancelled = new ArrayList<>();
+            synchronized (scheduleLock) {
+                try {
+                    changes = entries.apply(ops);
+                } catch (ScheduleTable.BatchRejected ex) {
+                    changes = null;
+                    errors[ex.index] = String.valueOf(ex.getMessage());
+                    status = ex.getCause() instanceof NoSuchElementException ? 404 : 400;
+                }
+                if (changes != null) {
+                    for (ScheduleTable.Change change : changes) {
+                        if (change.current == null) {
+                            cancelled.add(change.id());
+                        } else {
+                            scheduled.add(change.current);
+                        }
+                    }
+                    reminders.reschedule(scheduled, cancelled);
+                }
+            }
+            if (changes == null) {
+                sendResponse(exchange, status, batchResults(ops, errors, 0), "application/json; charset=utf-8");
+                return;
+            }
+            for (ScheduleEntry entry : scheduled) {
+                if (needsMusicDownload(entry)) {
+                    downloads.enqueue(entry);
+                }
             }
             refreshListModel();
-            saveSafe();
-            sendResponse(exchange, 201, entry.toJson(), "application/json; charset=utf-8");
+            if (!awaitDurable(exchange, persistChange())) {
+                return;
+            }
+            sendResponse(exchange, 200, batchResults(ops, errors, changes.size()), "application/json; charset=utf-8");
+        }
+
+        private static String requireId(String id) {
+            if (id.isBlank()) {
+                throw new IllegalArgumentException("缺少 id");
+            }
+            return id;
+        }
+
+        private static ScheduleEntry existing(ScheduleEntry current) {
+            if (current == null) {
+                throw new NoSuchElementException("未找到");
+            }
+            return current;
+        }
+
+        /**
+         * {"applied":变更条数,"results":[{index,op,ok,id,entry|error}]}；批次未生效时没有错误的项 error 为“批次未生效”。
+         */
+        private static String batchResults(List<BatchOp> ops, String[] errors, int applied) {
+            boolean rejected = false;
+            for (String error : errors) {
+                rejected |= error != null;
+            }
+            StringBuilder sb = new StringBuilder("{\"applied\":").append(applied).append(",\"results\":[");
+            for (int i = 0; i < ops.size(); i++) {
+                BatchOp op = ops.get(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"index\":").append(i)
+                    .append(",\"op\":\"").append(ScheduleEntry.escape(op.op)).append('"')
+                    .append(",\"ok\":").append(!rejected)
+                    .append(",\"id\":\"").append(ScheduleEntry.escape(op.id)).append('"');
+                if (rejected) {
+                    String error = errors[i] != null ? errors[i] : "批次未生效";
+                    sb.append(",\"error\":\"").append(ScheduleEntry.escape(error)).append('"');
+                } else if (op.result != null) {
+                    sb.append(",\"entry\":").append(op.result.toJson());
+                }
+                sb.append('}');
+            }
+            return sb.append("]}").toString();
+        }
+
+        /**
+         * 原地修改一条日程，id 不变：PUT 为整体替换（title/date/time 必填，未给的铃声字段清空），
+         * PATCH 只改出现的字段。按 id 索引取出后做比较替换，提醒按 id 在调度队列中重新定位；
+         * 铃声地址改变时交给后台重新下载，返回 202 与任务地址，否则返回 200。
+         */
+        private void handleSchedulesUpdate(HttpExchange exchange, boolean replace) throws IOException {
+            String id = queryParam(exchange.getRequestURI().getRawQuery(), "id");
+            if (id == null || id.isBlank()) {
+                sendResponse(exchange, 400, "{\"error\":\"缺少 id\"}", "application/json");
+                return;
+            }
+            Map<String, Object> fields;
+            try {
+                fields = parseJsonMap(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                if (replace) {
+                    fields = replacementFields(fields);
+                }
+            } catch (RuntimeException ex) {
+                sendResponse(exchange, 400, "{\"error\":\"" + ScheduleEntry.escape(String.valueOf(ex.getMessage())) + "\"}", "application/json");
+                return;
+            }
+            ScheduleEntry updated = null;
+            RuntimeException invalid = null;
+            // 取最新版本、替换和重新排期一起在锁内，到点滚动不会插在替换与排期之间
+            synchronized (scheduleLock) {
+                ScheduleEntry current = entries.get(id);
+                if (current != null) {
+                    try {
+                        updated = applyFields(current, fields);
+                        entries.replace(current, updated);
+                        reminders.schedule(updated);
+                    } catch (RuntimeException ex) {
+                        invalid = ex;
+                    }
+                }
+            }
+            if (invalid != null) {
+                sendResponse(exchange, 400, "{\"error\":\"" + ScheduleEntry.escape(String.valueOf(invalid.getMessage())) + "\"}", "application/json");
+                return;
+            }
+            if (updated == null) {
+                sendResponse(exchange, 404, "{\"error\":\"未找到\"}", "application/json");
+                return;
+            }
+            MusicDownloadQueue.Job job = needsMusicDownload(updated) ? downloads.enqueue(updated) : null;
+            refreshListModel();
+            if (!awaitDurable(exchange, persistChange())) {
+                return;
+            }
+            if (job != null) {
+                exchange.getResponseHeaders().set("Location", "/api/jobs/" + job.id);
+                exchange.getResponseHeaders().set("X-Job-Id", job.id);
+            }
+            sendResponse(exchange, job != null ? 202 : 200, updated.toJsonBytes(), "application/json; charset=utf-8");
+        }
+
+        /**
+         * PUT 的字段：必填项缺失时报错，可选项缺失时取默认值，使 applyFields 不沿用旧值。
+         */
+        private Map<String, Object> replacementFields(Map<String, Object> payload) {
+            if (str(payload.get("title")).isBlank() || str(payload.get("date")).isBlank() || str(payload.get("time")).isBlank()) {
+                throw new IllegalArgumentException("title/date/time 不能为空");
+            }
+            Map<String, Object> fields = new HashMap<>(payload);
+            if (str(fields.get("repeat")).isBlank()) {
+                fields.put("repeat", RepeatRule.NONE.name());
+            }
+            fields.putIfAbsent("musicTitle", "");
+            fields.putIfAbsent("musicUrl", "");
+            return fields;
         }
 
         private void handleSchedulesDelete(HttpExchange exchange) throws IOException {
@@ -663,20 +1536,26 @@ public class Main {
                 sendResponse(exchange, 400, "{\"error\":\"缺少 id\"}", "application/json");
                 return;
             }
-            boolean removed;
-            synchronized (lock) {
-                removed = entries.removeIf(e -> id.equals(e.getId()));
+            boolean removed = entries.remove(id) != null;
+            if (removed) {
+                reminders.cancel(id);
             }
             if (removed) {
                 refreshListModel();
-                saveSafe();
+                if (!awaitDurable(exchange, persistChange())) {
+                    return;
+                }
                 sendResponse(exchange, 200, "{\"status\":\"deleted\"}", "application/json");
             } else {
                 sendResponse(exchange, 404, "{\"error\":\"未找到\"}", "application/json");
             }
         }
+
         private Map<String, Object> parseJsonMap(String json) {
-            Object obj = MiniJson.parse(json);
+            return parseJsonMapValue(MiniJson.parse(json));
+        }
+
+        private Map<String, Object> parseJsonMapValue(Object obj) {
             if (obj instanceof Map<?, ?> map) {
                 @SuppressWarnings("unchecked")
                 Map<String, Object> m = (Map<String, Object>) map;
@@ -702,30 +1581,28 @@ public class Main {
             return null;
         }
 
-        private boolean maybeDownloadMusic(ScheduleEntry entry) {
+        private boolean needsMusicDownload(ScheduleEntry entry) {
             if (entry.getMusicUrl() == null || entry.getMusicUrl().isBlank()) {
                 return false;
             }
-            java.nio.file.Path existing = entry.getMusicFilePath();
-            if (existing != null && Files.exists(existing)) {
-                return false;
-            }
-            String saved = musicService.downloadMusic(entry.getMusicUrl(), entry.getId());
-            if (!saved.isBlank()) {
-                synchronized (lock) {
-                    entry.setMusicFile(saved);
-                }
-                return true;
-            }
-            return false;
+            Path existing = entry.getMusicFilePath();
+            return existing == null || !Files.exists(existing);
         }
 
+        /**
+         * 铃声还在后台下载时直接蜂鸣，不占着投递线程等下载。
+         */
         private void playAudioForEntry(ScheduleEntry entry) {
             boolean played = false;
             Path file = entry.getMusicFilePath();
+            ScheduleEntry current = entries.get(entry.getId());
+            if ((file == null || !Files.exists(file)) && current != null) {
+                file = current.getMusicFilePath();
+            }
             if (file != null && Files.exists(file)) {
                 played = mp3Player.play(file);
-            } else if (entry.getMusicUrl() != null && !entry.getMusicUrl().isBlank()) {
+            } else if (entry.getMusicUrl() != null && !entry.getMusicUrl().isBlank()
+                && !downloads.isPending(entry.getId())) {
                 String saved = musicService.downloadMusic(entry.getMusicUrl(), entry.getId());
                 if (!saved.isBlank()) {
                     Path downloaded = Paths.get(saved);
@@ -818,7 +1695,10 @@ public class Main {
         }
 
         private void sendResponse(HttpExchange exchange, int status, String body, String contentType) throws IOException {
-            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            sendResponse(exchange, status, body.getBytes(StandardCharsets.UTF_8), contentType);
+        }
+
+        private void sendResponse(HttpExchange exchange, int status, byte[] bytes, String contentType) throws IOException {
             exchange.getResponseHeaders().set("Content-Type", contentType);
             exchange.sendResponseHeaders(status, bytes.length);
             exchange.getResponseBody().write(bytes);
@@ -826,44 +1706,40 @@ public class Main {
         }
 
         private void startReminderLoop() {
-            executor.scheduleAtFixedRate(this::checkReminders, 0, 1, TimeUnit.MINUTES);
+            synchronized (scheduleLock) {
+                for (ScheduleEntry entry : entries.sorted()) {
+                    reminders.schedule(entry);
+                }
+            }
         }
 
-        private void checkReminders() {
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime threshold = now.plusMinutes(1);
-            boolean changed = false;
-            List<ScheduleEntry> dueEntries = new ArrayList<>();
-            synchronized (lock) {
-                for (ScheduleEntry entry : entries) {
-                    entry.alignToFuture(now);
-                    LocalDateTime time = entry.getDateTime();
-                    boolean dueNow = !entry.isNotified() && !time.isAfter(threshold) && !time.isBefore(now);
-                    if (dueNow) {
-                        dueEntries.add(entry);
-                        entry.markNotified();
-                        if (entry.getRepeatRule() != RepeatRule.NONE) {
-                            entry.moveToNext();
-                            changed = true;
-                        }
+        /**
+         * 调度器到点回调：已删除的条目直接忽略，重复条目滚动到下一次并重新排队。
+         */
+        private void onReminderDue(ScheduleEntry entry) {
+            boolean rolledForward = false;
+            synchronized (scheduleLock) {
+                if (!entries.contains(entry)) {
+                    return;
+                }
+                if (entry.getRepeatRule() != RepeatRule.NONE) {
+                    ScheduleEntry rolled = entry.next().alignedTo(LocalDateTime.now());
+                    rollingForward.add(rolled);
+                    // 锁内 contains 成立，替换必然成功；排期与替换之间不会被其他写入插入
+                    rolledForward = entries.replace(entry, rolled);
+                    if (rolledForward) {
+                        reminders.schedule(rolled);
                     }
+                    rollingForward.remove(rolled);
                 }
             }
-            if (changed) {
+            reminderLag.record(TimeUnit.MILLISECONDS.toNanos(
+                System.currentTimeMillis() - ReminderEngine.toEpochMillis(entry.getDateTime())));
+            if (rolledForward) {
                 refreshListModel();
-                saveSafe();
-            }
-            for (ScheduleEntry entry : dueEntries) {
-                showReminder(entry);
-            }
-        }
-
-        private void showReminder(ScheduleEntry entry) {
-            playAudioForEntry(entry);
-            if (trayIconWrapper != null && trayIconWrapper.isSupported()) {
-                trayIconWrapper.showReminder(entry);
+                persistChange();
             }
-            SwingUtilities.invokeLater(() -> showReminderDialog(entry));
+            dispatcher.submit(entry);
         }
 
         private void setupTray() {
@@ -884,8 +1760,11 @@ public class Main {
         }
 
         private void shutdownAndExit() {
-            saveSafe();
+            events.close();
+            store.close();
             executor.shutdownNow();
+            dispatcher.shutdown();
+            downloads.shutdown();
             if (httpServer != null) {
                 httpServer.stop(0);
             }
@@ -912,72 +1791,6 @@ public class Main {
             return date.toInstant().atZone(ZoneId.systemDefault()).toLocalTime().withSecond(0).withNano(0);
         }
 
-        private List<ScheduleEntry> readXml() throws Exception {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            try (FileInputStream in = new FileInputStream(STORAGE.toFile())) {
-                Document doc = builder.parse(in);
-                NodeList nodes = doc.getElementsByTagName("entry");
-                List<ScheduleEntry> list = new ArrayList<>();
-                for (int i = 0; i < nodes.getLength(); i++) {
-                    Element node = (Element) nodes.item(i);
-                    String id = text(node, "id");
-                    String title = text(node, "title");
-                    LocalDate date = LocalDate.parse(text(node, "date"), DATE_FORMAT);
-                    LocalTime time = LocalTime.parse(text(node, "time"), TIME_FORMAT);
-                    RepeatRule repeat = RepeatRule.valueOf(text(node, "repeat"));
-                    String musicTitle = text(node, "musicTitle");
-                    String musicUrl = text(node, "musicUrl");
-                    String musicFile = text(node, "musicFile");
-                    ScheduleEntry entry = new ScheduleEntry(id, title, date, time, repeat, musicTitle, musicUrl, musicFile);
-                    list.add(entry);
-                }
-                return list;
-            }
-        }
-
-        private void writeXml() throws Exception {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.newDocument();
-            Element root = doc.createElement("schedules");
-            doc.appendChild(root);
-
-            synchronized (lock) {
-                for (ScheduleEntry entry : entries) {
-                    Element node = doc.createElement("entry");
-                    appendNode(doc, node, "id", entry.getId());
-                    appendNode(doc, node, "title", entry.getTitle());
-                    appendNode(doc, node, "date", entry.getDateTime().toLocalDate().format(DATE_FORMAT));
-                    appendNode(doc, node, "time", entry.getDateTime().toLocalTime().format(TIME_FORMAT));
-                    appendNode(doc, node, "repeat", entry.getRepeatRule().name());
-                    appendNode(doc, node, "musicTitle", entry.getMusicTitle());
-                    appendNode(doc, node, "musicUrl", entry.getMusicUrl());
-                    appendNode(doc, node, "musicFile", entry.getMusicFile());
-                    root.appendChild(node);
-                }
-            }
-
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-            try (FileOutputStream out = new FileOutputStream(STORAGE.toFile())) {
-                transformer.transform(new DOMSource(doc), new StreamResult(out));
-            }
-        }
-
-        private void appendNode(Document doc, Element parent, String name, String value) {
-            Element child = doc.createElement(name);
-            child.appendChild(doc.createTextNode(value));
-            parent.appendChild(child);
-        }
-
-        private String text(Element element, String tag) {
-            NodeList nodes = element.getElementsByTagName(tag);
-            return nodes.getLength() == 0 ? "" : nodes.item(0).getTextContent();
-        }
-
         private static final class EntryRenderer extends DefaultListCellRenderer {
             @Override
             public java.awt.Component getListCellRendererComponent(
@@ -995,6 +1808,33 @@ public class Main {
             }
         }
 
+        /**
+         * 批量请求中的一项，记录生效后的条目供响应使用；fn 为 null 表示该项本身无效。
+         */
+        private static final class BatchOp implements ScheduleTable.Mutation {
+            final String op;
+            final String id;
+            private final UnaryOperator<ScheduleEntry> fn;
+            ScheduleEntry result;
+
+            BatchOp(String op, String id, UnaryOperator<ScheduleEntry> fn) {
+                this.op = op;
+                this.id = id;
+                this.fn = fn;
+            }
+
+            @Override
+            public String id() {
+                return id;
+            }
+
+            @Override
+            public ScheduleEntry apply(ScheduleEntry current) {
+                result = fn.apply(current);
+                return result;
+            }
+        }
+
         private static final class DaemonFactory implements ThreadFactory {
             @Override
             public Thread newThread(Runnable r) {
@@ -0,0 +1,73 @@
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 纯内存后端：不落盘，重启即丢失。用于演示、基准和不需要持久化的部署。
+ * 日程只在 SchedulerApp 的日程表里，后端不另存一份；变更通知什么也不用做，因此不计指标。
+ */
+final class MemoryScheduleStore implements ScheduleStore {
+    private final ScheduleTable source;
+    private final Metrics metrics = new Metrics();
+
+    MemoryScheduleStore(ScheduleTable source) {
+        this.source = source;
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public List<Main.ScheduleEntry> load() {
+        long start = System.nanoTime();
+        List<Main.ScheduleEntry> all = source.sorted();
+        metrics.op("load").recordSince(start);
+        return all;
+    }
+
+    @Override
+    public void upsert(Main.ScheduleEntry entry) {
+    }
+
+    @Override
+    public void delete(String id) {
+    }
+
+    @Override
+    public void applyBatch(List<ScheduleTable.Change> changes) {
+    }
+
+    @Override
+    public void replaceAll(Collection<Main.ScheduleEntry> entries) {
+    }
+
+    @Override
+    public List<Main.ScheduleEntry> rangeScan(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        List<Main.ScheduleEntry> range = source.between(from, to);
+        metrics.op("rangeScan").recordSince(start);
+        return range;
+    }
+
+    @Override
+    public CompletableFuture<Void> sync() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public Metrics metrics() {
+        return metrics;
+    }
+}
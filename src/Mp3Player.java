@@ -5,6 +5,7 @@ import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 import javazoom.jl.player.Player;
 
@@ -22,6 +23,9 @@ public final class Mp3Player {
     private BufferedInputStream currentStream;
     private long currentPlayId = 0;
     private long playSeq = 0;
+    /** 从调用 play 到解码器就绪、开始出声的耗时，含排队、打开文件和解析帧头。 */
+    private final LatencyStats startLatency = new LatencyStats();
+    private final LongAdder failures = new LongAdder();
 
     public synchronized boolean play(Path file) {
         if (file == null || !file.toFile().exists() || !file.toFile().canRead()) {
@@ -29,6 +33,7 @@ public final class Mp3Player {
         }
         stop();
         final long playId = ++playSeq;
+        final long requested = System.nanoTime();
         Future<?> submitted = pool.submit(() -> {
             BufferedInputStream in = null;
             Player localPlayer = null;
@@ -40,8 +45,10 @@ public final class Mp3Player {
                     currentStream = in;
                     currentPlayer = localPlayer;
                 }
+                startLatency.recordSince(requested);
                 localPlayer.play();
             } catch (Exception ex) {
+                failures.increment();
                 System.err.println("MP3 play failed: " + ex.getMessage());
             } finally {
                 synchronized (this) {
@@ -101,6 +108,11 @@ public final class Mp3Player {
         }
     }
 
+    void writeMetrics(PrometheusText out) {
+        out.histogram("scheduler_mp3_start_duration_seconds", "MP3 从请求播放到开始出声的耗时", startLatency);
+        out.counter("scheduler_mp3_failures_total", "MP3 播放失败次数", failures.sum());
+    }
+
     public synchronized void shutdown() {
         stop();
         pool.shutdownNow();
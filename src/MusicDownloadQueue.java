@@ -0,0 +1,241 @@
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * 铃声后台下载任务：启动时缺失的铃声和新建日程的铃声都在这里排队下载，不阻塞 HTTP 请求和提醒调度。
+ * 每次排队生成一个可按 id 查询的任务；失败按指数退避重试，用尽后标记失败。
+ * 同一条日程、同一地址同时只排一次；队列有界，满了任务直接标记为丢弃并计数，下次触发或重启时再补。
+ */
+final class MusicDownloadQueue {
+    /**
+     * 下载 url 保存为以 id 开头、带地址摘要的文件，返回本地路径，失败返回空串。
+     */
+    interface Downloader {
+        String download(String url, String id);
+    }
+
+    static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_MILLIS = 2_000;
+    /** 已结束的任务保留这么多个供查询，更早的丢弃。 */
+    private static final int FINISHED_RETAINED = 1_000;
+
+    enum State {
+        QUEUED, RUNNING, RETRYING, SUCCEEDED, FAILED, DROPPED
+    }
+
+    /**
+     * 一次铃声下载任务，状态由工作线程推进。
+     */
+    static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final String entryId;
+        final String url;
+        final long createdAt = System.currentTimeMillis();
+        private volatile State state = State.QUEUED;
+        private volatile int attempts;
+        private volatile String error = "";
+        private volatile String musicFile = "";
+        private volatile long updatedAt = createdAt;
+
+        private Job(Main.ScheduleEntry entry) {
+            this.entryId = entry.getId();
+            this.url = entry.getMusicUrl();
+        }
+
+        private void update(State next, String message) {
+            state = next;
+            if (message != null) {
+                error = message;
+            }
+            updatedAt = System.currentTimeMillis();
+        }
+
+        String toJson() {
+            return "{\"id\":\"" + id + "\",\"type\":\"music-download\",\"entryId\":\"" + Main.ScheduleEntry.escape(entryId)
+                + "\",\"state\":\"" + state + "\",\"attempts\":" + attempts + ",\"maxAttempts\":" + MAX_ATTEMPTS
+                + ",\"error\":\"" + Main.ScheduleEntry.escape(error) + "\",\"musicFile\":\"" + Main.ScheduleEntry.escape(musicFile)
+                + "\",\"createdAt\":" + createdAt + ",\"updatedAt\":" + updatedAt + "}";
+        }
+    }
+
+    private final Downloader downloader;
+    private final BiConsumer<Main.ScheduleEntry, String> onDownloaded;
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService retries;
+    private final int capacity;
+    /** 按日程 id 索引进行中的任务。 */
+    private final Map<String, Job> active = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param onDownloaded 下载成功后在工作线程回调（原条目，本地路径）
+     */
+    MusicDownloadQueue(int workers, int capacity, Downloader downloader, BiConsumer<Main.ScheduleEntry, String> onDownloaded) {
+        this.downloader = downloader;
+        this.onDownloaded = onDownloaded;
+        this.capacity = capacity;
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+            workers,
+            workers,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            r -> {
+                Thread t = new Thread(r, "music-download-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.pool.allowCoreThreadTimeOut(true);
+        this.retries = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "music-download-retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 排队下载该日程的铃声并返回任务；同一日程同一地址已在进行时返回原任务，
+     * 队列已满时返回状态为 DROPPED 的任务。
+     */
+    Job enqueue(Main.ScheduleEntry entry) {
+        Job job = new Job(entry);
+        Job existing = active.putIfAbsent(entry.getId(), job);
+        if (existing != null) {
+            if (existing.url.equals(entry.getMusicUrl())) {
+                return existing;
+            }
+            // 地址已改：新任务接替，旧任务跑完后的回调会因地址不符被忽略
+            active.put(entry.getId(), job);
+        }
+        jobs.put(job.id, job);
+        enqueued.increment();
+        if (!submit(job, entry)) {
+            dropped.increment();
+            finish(job, State.DROPPED, "下载队列已满");
+        }
+        return job;
+    }
+
+    Job job(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * 该日程的铃声是否还在排队、下载或等待重试。
+     */
+    boolean isPending(String entryId) {
+        return active.containsKey(entryId);
+    }
+
+    private boolean submit(Job job, Main.ScheduleEntry entry) {
+        try {
+            pool.execute(() -> download(job, entry));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    private void download(Job job, Main.ScheduleEntry entry) {
+        job.attempts++;
+        job.update(State.RUNNING, null);
+        String saved;
+        String error;
+        try {
+            saved = downloader.download(job.url, job.entryId);
+            error = saved.isBlank() ? "下载失败" : null;
+        } catch (RuntimeException ex) {
+            saved = "";
+            error = String.valueOf(ex.getMessage());
+        }
+        if (error == null) {
+            job.musicFile = saved;
+            completed.increment();
+            try {
+                onDownloaded.accept(entry, saved);
+            } catch (RuntimeException ex) {
+                System.err.println("铃声下载后更新日程失败：" + ex.getMessage());
+            }
+            finish(job, State.SUCCEEDED, "");
+            return;
+        }
+        if (job.attempts >= MAX_ATTEMPTS) {
+            failed.increment();
+            System.err.println("铃声下载失败（已重试 " + (job.attempts - 1) + " 次）：" + error);
+            finish(job, State.FAILED, error);
+            return;
+        }
+        retried.increment();
+        job.update(State.RETRYING, error);
+        long delay = RETRY_BASE_MILLIS << (job.attempts - 1);
+        try {
+            retries.schedule(() -> {
+                if (!submit(job, entry)) {
+                    dropped.increment();
+                    finish(job, State.DROPPED, "下载队列已满");
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            failed.increment();
+            finish(job, State.FAILED, error);
+        }
+    }
+
+    private void finish(Job job, State state, String error) {
+        job.update(state, error);
+        active.remove(job.entryId, job);
+        finished.add(job.id);
+        if (finishedCount.incrementAndGet() > FINISHED_RETAINED) {
+            String oldest = finished.poll();
+            if (oldest != null) {
+                finishedCount.decrementAndGet();
+                jobs.remove(oldest);
+            }
+        }
+    }
+
+    String statsJson() {
+        return "{\"enqueued\":" + enqueued.sum() + ",\"completed\":" + completed.sum()
+            + ",\"failed\":" + failed.sum() + ",\"retried\":" + retried.sum() + ",\"dropped\":" + dropped.sum()
+            + ",\"pending\":" + active.size() + ",\"queued\":" + pool.getQueue().size()
+            + ",\"capacity\":" + capacity + ",\"active\":" + pool.getActiveCount() + "}";
+    }
+
+    void writeMetrics(PrometheusText out) {
+        String name = "scheduler_music_download_jobs_total";
+        String help = "铃声下载任务";
+        out.counter(name, help, enqueued.sum(), "outcome", "enqueued");
+        out.counter(name, help, completed.sum(), "outcome", "completed");
+        out.counter(name, help, failed.sum(), "outcome", "failed");
+        out.counter(name, help, retried.sum(), "outcome", "retried");
+        out.counter(name, help, dropped.sum(), "outcome", "dropped");
+        out.gauge("scheduler_music_download_pending", "排队、下载中或等待重试的铃声数", active.size());
+    }
+
+    void shutdown() {
+        retries.shutdownNow();
+        pool.shutdownNow();
+    }
+}
@@ -6,7 +6,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -14,8 +17,12 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 /**
  * 网易云音乐服务：搜索、热评、直链、下载。
@@ -26,6 +33,20 @@ public final class MusicService {
 
     private final HttpClient http;
     private final Path musicDir;
+    /** 按上游地址（scheme://host）统计的请求耗时与结果。 */
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+    /** 按操作统计调用次数与改走备用源的次数。 */
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> fallbacks = new ConcurrentHashMap<>();
+    private final LatencyStats downloadLatency = new LatencyStats();
+    private final LongAdder downloadBytes = new LongAdder();
+    private final LongAdder downloadFailures = new LongAdder();
+
+    private static final class Upstream {
+        final LatencyStats latency = new LatencyStats();
+        final LongAdder ok = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
 
     public MusicService(Path musicDir) {
         this.musicDir = musicDir;
@@ -40,16 +61,20 @@ public final class MusicService {
     }
 
     public List<MusicMatch> search(String keyword, int limit) {
+        count(calls, "search");
         List<MusicMatch> list = searchPrimary(keyword, limit);
         if (list.isEmpty()) {
+            count(fallbacks, "search");
             list = searchFallback(keyword, limit);
         }
         return list;
     }
 
     public List<MusicComment> hotComments(String songId, int limit) {
+        count(calls, "comments");
         List<MusicComment> list = fetchCommentsFromBase(PRIMARY_BASE, songId, limit);
         if (list.isEmpty()) {
+            count(fallbacks, "comments");
             list = fetchCommentsFromBase(FALLBACK_BASE, songId, limit);
         }
         return list;
@@ -72,7 +97,12 @@ public final class MusicService {
         return list;
     }
 
+    /**
+     * 文件名带上地址的摘要：同一日程换过铃声地址时，跑得慢的旧任务不会覆盖新地址的文件。
+     * 先写临时文件再原子改名，读到的总是完整文件。
+     */
     public String downloadMusic(String musicUrl, String entryId) {
+        long start = System.nanoTime();
         try {
             HttpRequest req = HttpRequest.newBuilder(URI.create(musicUrl))
                 .timeout(Duration.ofSeconds(15))
@@ -80,16 +110,53 @@ public final class MusicService {
                 .build();
             HttpResponse<byte[]> resp = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
             if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                String ext = guessExtension(musicUrl);
-                Path target = musicDir.resolve(entryId + ext);
-                Files.write(target, resp.body());
+                Path target = musicDir.resolve(downloadFileName(entryId, musicUrl));
+                Path temp = Files.createTempFile(musicDir, entryId + "-", ".part");
+                try {
+                    Files.write(temp, resp.body());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                downloadLatency.recordSince(start);
+                downloadBytes.add(resp.body().length);
                 return target.toString();
             }
         } catch (Exception ignored) {
         }
+        downloadFailures.increment();
         return "";
     }
 
+    /**
+     * 日程 entryId 从 musicUrl 下载的铃声文件名：{@code entryId-地址CRC32.扩展名}。
+     */
+    String downloadFileName(String entryId, String musicUrl) {
+        CRC32 crc = new CRC32();
+        crc.update(musicUrl.getBytes(StandardCharsets.UTF_8));
+        return entryId + "-" + String.format("%08x", crc.getValue()) + guessExtension(musicUrl);
+    }
+
+    /**
+     * 删除日程 entryId 下载过、已不再引用的铃声文件。只删铃声目录里以该日程 id 命名的文件
+     * （包括旧版只用 id 命名的），用户自己指定的本地文件不受影响。
+     */
+    void deleteDownloaded(String entryId, String musicFile) {
+        if (musicFile == null || musicFile.isBlank()) {
+            return;
+        }
+        try {
+            Path file = Paths.get(musicFile).toAbsolutePath().normalize();
+            String name = file.getFileName().toString();
+            if (musicDir.toAbsolutePath().normalize().equals(file.getParent())
+                && (name.startsWith(entryId + "-") || name.startsWith(entryId + "."))) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException | InvalidPathException ex) {
+            System.err.println("删除铃声文件失败：" + ex.getMessage());
+        }
+    }
+
     private List<MusicMatch> searchPrimary(String keyword, int limit) {
         List<MusicMatch> list = new ArrayList<>();
         try {
@@ -141,8 +208,8 @@ public final class MusicService {
                 .POST(HttpRequest.BodyPublishers.ofString(body))
                 .timeout(Duration.ofSeconds(10))
                 .build();
-            HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
-            if (res.statusCode() < 200 || res.statusCode() >= 300) {
+            HttpResponse<String> res = send(req);
+            if (res == null) {
                 return list;
             }
             Object root = MiniJson.parse(res.body());
@@ -205,15 +272,66 @@ public final class MusicService {
                 .GET()
                 .timeout(Duration.ofSeconds(10))
                 .build();
+            return send(req);
+        } catch (Exception ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * 发出请求并按上游地址记录耗时；非 2xx 或异常都计为失败并返回 null。
+     */
+    private HttpResponse<String> send(HttpRequest req) {
+        URI uri = req.uri();
+        Upstream upstream = upstreams.computeIfAbsent(uri.getScheme() + "://" + uri.getHost(), key -> new Upstream());
+        long start = System.nanoTime();
+        try {
             HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+            upstream.latency.recordSince(start);
             if (res.statusCode() >= 200 && res.statusCode() < 300) {
+                upstream.ok.increment();
                 return res;
             }
-        } catch (Exception ignored) {
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            upstream.latency.recordSince(start);
+        } catch (Exception ex) {
+            upstream.latency.recordSince(start);
         }
+        upstream.errors.increment();
         return null;
     }
 
+    private static void count(Map<String, LongAdder> counters, String op) {
+        counters.computeIfAbsent(op, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * 上游延迟与结果、各操作的备用源切换次数、铃声下载的耗时与字节数。
+     */
+    void writeMetrics(PrometheusText out) {
+        Map<String, Upstream> sorted = new TreeMap<>(upstreams);
+        for (Map.Entry<String, Upstream> entry : sorted.entrySet()) {
+            out.histogram("scheduler_music_upstream_duration_seconds", "音乐上游请求耗时",
+                entry.getValue().latency, "base", entry.getKey());
+        }
+        for (Map.Entry<String, Upstream> entry : sorted.entrySet()) {
+            out.counter("scheduler_music_upstream_requests_total", "音乐上游请求数", entry.getValue().ok.sum(),
+                "base", entry.getKey(), "outcome", "ok");
+            out.counter("scheduler_music_upstream_requests_total", "音乐上游请求数", entry.getValue().errors.sum(),
+                "base", entry.getKey(), "outcome", "error");
+        }
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(calls).entrySet()) {
+            out.counter("scheduler_music_calls_total", "音乐服务调用次数", entry.getValue().sum(), "op", entry.getKey());
+        }
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(fallbacks).entrySet()) {
+            out.counter("scheduler_music_fallbacks_total", "主源无结果、改走备用源的次数", entry.getValue().sum(), "op", entry.getKey());
+        }
+        out.histogram("scheduler_music_download_duration_seconds", "铃声下载成功的耗时（含写盘）", downloadLatency);
+        out.counter("scheduler_music_download_bytes_total", "铃声下载的字节数", downloadBytes.sum());
+        out.counter("scheduler_music_download_failures_total", "铃声下载失败次数", downloadFailures.sum());
+    }
+
     private String joinArtists(Object artists) {
         if (!(artists instanceof List)) {
             return "";
@@ -355,6 +473,7 @@ public final class MusicService {
     }
 
     public String lyric(String songId) {
+        count(calls, "lyric");
         // 优先主源
         try {
             String url = PRIMARY_BASE + "/lyric?id=" + URLEncoder.encode(songId, StandardCharsets.UTF_8);
@@ -368,6 +487,7 @@ public final class MusicService {
         } catch (Exception ignored) {
         }
         // 备用源（只要兼容 txqq 返回的 lrc 字段）
+        count(fallbacks, "lyric");
         try {
             String url = FALLBACK_BASE + "lyric?id=" + URLEncoder.encode(songId, StandardCharsets.UTF_8);
             HttpResponse<String> res = sendGet(url);
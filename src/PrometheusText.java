@@ -0,0 +1,88 @@
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Prometheus 文本格式（0.0.4）的拼装器：每个指标族第一次出现时写 HELP / TYPE，
+ * 调用方负责把同一族的样本连续写出。标签以键、值交替的形式传入。
+ */
+final class PrometheusText {
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    /** 直方图输出的桶：2^10 ns（约 1 微秒）到 2^36 ns（约 69 秒），每档翻倍。 */
+    private static final int FIRST_BUCKET = 10;
+    private static final int LAST_BUCKET = 36;
+
+    private final StringBuilder sb = new StringBuilder(8 * 1024);
+    private final Set<String> declared = new HashSet<>();
+
+    PrometheusText counter(String name, String help, long value, String... labels) {
+        declare(name, help, "counter");
+        sample(name, labels, null, Long.toString(value));
+        return this;
+    }
+
+    PrometheusText gauge(String name, String help, double value, String... labels) {
+        declare(name, help, "gauge");
+        sample(name, labels, null, format(value));
+        return this;
+    }
+
+    /**
+     * 以秒为单位写出 LatencyStats 的累积分桶、总和与次数。各计数分别读取，并发写入时可能略有出入。
+     */
+    PrometheusText histogram(String name, String help, LatencyStats stats, String... labels) {
+        declare(name, help, "histogram");
+        long[] counts = stats.bucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (i >= FIRST_BUCKET && i <= LAST_BUCKET) {
+                sample(name + "_bucket", labels, format((1L << i) / 1e9), Long.toString(cumulative));
+            }
+        }
+        sample(name + "_bucket", labels, "+Inf", Long.toString(cumulative));
+        sample(name + "_sum", labels, null, format(stats.totalNanos() / 1e9));
+        sample(name + "_count", labels, null, Long.toString(cumulative));
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    private void declare(String name, String help, String type) {
+        if (declared.add(name)) {
+            sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    private void sample(String name, String[] labels, String le, String value) {
+        sb.append(name);
+        if (labels.length > 0 || le != null) {
+            sb.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            if (le != null) {
+                if (labels.length > 0) {
+                    sb.append(',');
+                }
+                sb.append("le=\"").append(le).append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
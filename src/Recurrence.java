@@ -0,0 +1,79 @@
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 重复规则求值：按步长直接算出第 k 次发生时间，不逐次累加。
+ * 第 k 次总是从锚点一次性加 k 个步长，月末等截断不会累积漂移。
+ */
+final class Recurrence {
+    private Recurrence() {
+    }
+
+    /**
+     * 锚点之后第一个不早于 base 的发生时间；不重复规则原样返回锚点。
+     */
+    static LocalDateTime nextOnOrAfter(LocalDateTime anchor, Main.RepeatRule rule, LocalDateTime base) {
+        if (rule.getUnit() == null) {
+            return anchor;
+        }
+        return occurrence(anchor, rule, indexOnOrAfter(anchor, rule, base));
+    }
+
+    /**
+     * [from, to) 内的发生时间，惰性生成；起点直接定位，不遍历区间之前的发生。
+     */
+    static Iterable<LocalDateTime> occurrencesBetween(
+        LocalDateTime anchor,
+        Main.RepeatRule rule,
+        LocalDateTime from,
+        LocalDateTime to
+    ) {
+        return () -> new Iterator<>() {
+            private long k = firstIndex(anchor, rule, from);
+            private LocalDateTime next = k < 0 ? null : occurrence(anchor, rule, k);
+
+            @Override
+            public boolean hasNext() {
+                return next != null && next.isBefore(to);
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LocalDateTime current = next;
+                next = rule.getUnit() == null ? null : occurrence(anchor, rule, ++k);
+                return current;
+            }
+        };
+    }
+
+    private static long firstIndex(LocalDateTime anchor, Main.RepeatRule rule, LocalDateTime from) {
+        if (!anchor.isBefore(from)) {
+            return 0;
+        }
+        return rule.getUnit() == null ? -1 : indexOnOrAfter(anchor, rule, from);
+    }
+
+    /**
+     * between 只数完整步长，估算值不会越过 base，最多再前进一两步即可。
+     */
+    private static long indexOnOrAfter(LocalDateTime anchor, Main.RepeatRule rule, LocalDateTime base) {
+        if (!anchor.isBefore(base)) {
+            return 0;
+        }
+        long k = rule.getUnit().between(anchor, base) / rule.getAmount();
+        while (occurrence(anchor, rule, k).isBefore(base)) {
+            k++;
+        }
+        return k;
+    }
+
+    private static LocalDateTime occurrence(LocalDateTime anchor, Main.RepeatRule rule, long k) {
+        ChronoUnit unit = rule.getUnit();
+        return unit == null ? anchor : anchor.plus(k * rule.getAmount(), unit);
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 提醒投递管线：调度线程只负责入队，铃声 / 托盘 / 弹窗 / 事件推送各有自己的工作线程和有界队列。
+ * 队列满了直接丢弃并按目标计数；某个目标卡住（例如铃声等下载）只会积压它自己的队列，不影响其他目标。
+ */
+final class ReminderDispatcher {
+    /**
+     * 投递目标，例如铃声、托盘气泡、弹窗。
+     */
+    interface Sink {
+        String name();
+
+        void deliver(Main.ScheduleEntry entry) throws Exception;
+
+        static Sink of(String name, Consumer<Main.ScheduleEntry> action) {
+            return new Sink() {
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public void deliver(Main.ScheduleEntry entry) {
+                    action.accept(entry);
+                }
+            };
+        }
+    }
+
+    /**
+     * 一个投递目标独占的工作线程和有界队列，丢弃与失败分开计数。
+     */
+    private static final class Lane {
+        final Sink sink;
+        final ThreadPoolExecutor pool;
+        final LongAdder delivered = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        Lane(Sink sink, int workers, int capacity) {
+            this.sink = sink;
+            AtomicInteger seq = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(
+                workers,
+                workers,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                r -> {
+                    Thread t = new Thread(r, "reminder-" + sink.name() + "-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+            this.pool.allowCoreThreadTimeOut(true);
+        }
+
+        void deliver(Main.ScheduleEntry entry) {
+            try {
+                sink.deliver(entry);
+                delivered.increment();
+            } catch (Exception ex) {
+                failed.increment();
+                System.err.println("提醒投递失败（" + sink.name() + "）：" + ex.getMessage());
+            }
+        }
+
+        String toJson(int capacity) {
+            return "{\"delivered\":" + delivered.sum() + ",\"dropped\":" + dropped.sum()
+                + ",\"failed\":" + failed.sum() + ",\"queued\":" + pool.getQueue().size()
+                + ",\"capacity\":" + capacity + ",\"active\":" + pool.getActiveCount() + "}";
+        }
+    }
+
+    private final List<Lane> lanes = new ArrayList<>();
+    private final int capacity;
+    private final LongAdder submitted = new LongAdder();
+
+    /**
+     * @param workers 每个投递目标的工作线程数
+     * @param capacity 每个投递目标的队列容量
+     */
+    ReminderDispatcher(int workers, int capacity, List<Sink> sinks) {
+        this.capacity = capacity;
+        for (Sink sink : sinks) {
+            lanes.add(new Lane(sink, workers, capacity));
+        }
+    }
+
+    /**
+     * 每个投递目标各入自己的队列；返回 false 表示至少有一个目标因队列已满被丢弃。
+     */
+    boolean submit(Main.ScheduleEntry entry) {
+        submitted.increment();
+        boolean accepted = true;
+        for (Lane lane : lanes) {
+            try {
+                lane.pool.execute(() -> lane.deliver(entry));
+            } catch (RejectedExecutionException ex) {
+                lane.dropped.increment();
+                accepted = false;
+                System.err.println("提醒队列已满，丢弃 " + lane.sink.name() + "：" + entry.getTitle());
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 顶层为各目标之和，sinks 下按目标分列。
+     */
+    String statsJson() {
+        long delivered = 0;
+        long dropped = 0;
+        long failed = 0;
+        int queued = 0;
+        int active = 0;
+        StringBuilder perSink = new StringBuilder();
+        for (Lane lane : lanes) {
+            delivered += lane.delivered.sum();
+            dropped += lane.dropped.sum();
+            failed += lane.failed.sum();
+            queued += lane.pool.getQueue().size();
+            active += lane.pool.getActiveCount();
+            if (perSink.length() > 0) {
+                perSink.append(',');
+            }
+            perSink.append('"').append(lane.sink.name()).append("\":").append(lane.toJson(capacity));
+        }
+        return "{\"submitted\":" + submitted.sum() + ",\"delivered\":" + delivered
+            + ",\"dropped\":" + dropped + ",\"failed\":" + failed
+            + ",\"queued\":" + queued + ",\"capacity\":" + capacity * lanes.size()
+            + ",\"active\":" + active + ",\"sinks\":{" + perSink + "}}";
+    }
+
+    void writeMetrics(PrometheusText out) {
+        out.counter("scheduler_reminder_submitted_total", "到期提醒数", submitted.sum());
+        for (Lane lane : lanes) {
+            String sink = lane.sink.name();
+            out.counter("scheduler_reminder_deliveries_total", "提醒投递结果（每个投递目标各计一次）", lane.delivered.sum(), "sink", sink, "outcome", "delivered");
+            out.counter("scheduler_reminder_deliveries_total", "提醒投递结果（每个投递目标各计一次）", lane.failed.sum(), "sink", sink, "outcome", "failed");
+            out.counter("scheduler_reminder_deliveries_total", "提醒投递结果（每个投递目标各计一次）", lane.dropped.sum(), "sink", sink, "outcome", "dropped");
+        }
+        for (Lane lane : lanes) {
+            out.gauge("scheduler_reminder_queue_depth", "等待投递的提醒数", lane.pool.getQueue().size(), "sink", lane.sink.name());
+        }
+    }
+
+    void shutdown() {
+        for (Lane lane : lanes) {
+            lane.pool.shutdownNow();
+        }
+    }
+}
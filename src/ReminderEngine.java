@@ -0,0 +1,39 @@
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提醒引擎：按日程时间排队，到点回调。实现需线程安全。
+ */
+interface ReminderEngine {
+    /** 错过触发时间不超过该值的日程仍会立即补发，与旧版一分钟轮询窗口一致。 */
+    long LATE_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 按条目当前时间排队，同 id 的旧排期会被替换；已过期太久的条目返回 false。
+     */
+    boolean schedule(Main.ScheduleEntry entry);
+
+    boolean cancel(String id);
+
+    /**
+     * 一批排期和取消，实现可以只重新布置一次唤醒；默认逐条处理。
+     */
+    default void reschedule(Collection<Main.ScheduleEntry> scheduled, Collection<String> cancelled) {
+        for (String id : cancelled) {
+            cancel(id);
+        }
+        for (Main.ScheduleEntry entry : scheduled) {
+            schedule(entry);
+        }
+    }
+
+    void clear();
+
+    int size();
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
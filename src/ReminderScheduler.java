@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 事件驱动的提醒调度器：按触发时间排序保存日程，只在最早一条到期时唤醒。
+ */
+final class ReminderScheduler implements ReminderEngine {
+    /** 单次最长休眠，防止系统休眠或改时间后 nanoTime 与墙上时钟脱节。 */
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final Comparator<Slot> ORDER = Comparator
+        .comparingLong((Slot s) -> s.fireAt)
+        .thenComparingLong(s -> s.seq);
+
+    private final ScheduledExecutorService executor;
+    private final Consumer<Main.ScheduleEntry> onDue;
+    private final TreeSet<Slot> queue = new TreeSet<>(ORDER);
+    private final Map<String, Slot> byId = new HashMap<>();
+    private ScheduledFuture<?> wakeup;
+    private long wakeupAt = Long.MAX_VALUE;
+    private long seq = 0;
+
+    ReminderScheduler(ScheduledExecutorService executor, Consumer<Main.ScheduleEntry> onDue) {
+        this.executor = executor;
+        this.onDue = onDue;
+    }
+
+    @Override
+    public synchronized boolean schedule(Main.ScheduleEntry entry) {
+        removeSlot(entry.getId());
+        long fireAt = ReminderEngine.toEpochMillis(entry.getDateTime());
+        if (fireAt < System.currentTimeMillis() - LATE_GRACE_MILLIS) {
+            rearm();
+            return false;
+        }
+        Slot slot = new Slot(fireAt, ++seq, entry);
+        queue.add(slot);
+        byId.put(entry.getId(), slot);
+        rearm();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean cancel(String id) {
+        boolean removed = removeSlot(id);
+        if (removed) {
+            rearm();
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized void reschedule(Collection<Main.ScheduleEntry> scheduled, Collection<String> cancelled) {
+        for (String id : cancelled) {
+            removeSlot(id);
+        }
+        long lateBefore = System.currentTimeMillis() - LATE_GRACE_MILLIS;
+        for (Main.ScheduleEntry entry : scheduled) {
+            removeSlot(entry.getId());
+            long fireAt = ReminderEngine.toEpochMillis(entry.getDateTime());
+            if (fireAt >= lateBefore) {
+                Slot slot = new Slot(fireAt, ++seq, entry);
+                queue.add(slot);
+                byId.put(entry.getId(), slot);
+            }
+        }
+        rearm();
+    }
+
+    @Override
+    public synchronized void clear() {
+        queue.clear();
+        byId.clear();
+        rearm();
+    }
+
+    @Override
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    private boolean removeSlot(String id) {
+        Slot old = byId.remove(id);
+        if (old == null) {
+            return false;
+        }
+        queue.remove(old);
+        return true;
+    }
+
+    /**
+     * 只有队首比当前唤醒点更早（或队列清空）时才重新布置唤醒任务。
+     */
+    private void rearm() {
+        long target = queue.isEmpty() ? Long.MAX_VALUE : queue.first().fireAt;
+        if (target == wakeupAt && wakeup != null && !wakeup.isDone()) {
+            return;
+        }
+        if (wakeup != null) {
+            wakeup.cancel(false);
+            wakeup = null;
+        }
+        wakeupAt = target;
+        if (target == Long.MAX_VALUE || executor.isShutdown()) {
+            return;
+        }
+        long delay = Math.max(0, Math.min(target - System.currentTimeMillis(), MAX_SLEEP_MILLIS));
+        wakeup = executor.schedule(this::fireDue, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void fireDue() {
+        List<Main.ScheduleEntry> due = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            while (!queue.isEmpty() && queue.first().fireAt <= now) {
+                Slot slot = queue.pollFirst();
+                byId.remove(slot.entry.getId());
+                due.add(slot.entry);
+            }
+            wakeup = null;
+            wakeupAt = Long.MAX_VALUE;
+            rearm();
+        }
+        for (Main.ScheduleEntry entry : due) {
+            try {
+                onDue.accept(entry);
+            } catch (RuntimeException ex) {
+                System.err.println("提醒处理失败：" + ex.getMessage());
+            }
+        }
+    }
+
+    private static final class Slot {
+        final long fireAt;
+        final long seq;
+        final Main.ScheduleEntry entry;
+
+        Slot(long fireAt, long seq, Main.ScheduleEntry entry) {
+            this.fireAt = fireAt;
+            this.seq = seq;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑二进制快照（schedule.bin）：定长记录 + 字符串表，加载时整文件内存映射后一次解码全部条目。
+ * 启动时所有条目都要装入日程表、排进提醒队列，按需解码省不下什么，因此不做惰性视图。
+ *
+ * <p>布局（大端）：头部 {@code magic, version, count, stringCount, stringsOffset} 各 4 字节；
+ * 随后 count 条 32 字节记录 {@code long 纪元分钟(UTC 墙钟), int 重复规则序号, int id, int title,
+ * int musicTitle, int musicUrl, int musicFile}，后五项为字符串表下标；最后是 stringCount + 1 个
+ * int 偏移和 UTF-8 字节。相同字符串（空串、同一首歌等）只存一份。
+ */
+final class ScheduleBinaryCodec {
+    private static final int MAGIC = 0x5A595342;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int RECORD_BYTES = 32;
+    private static final Main.RepeatRule[] RULES = Main.RepeatRule.values();
+
+    private ScheduleBinaryCodec() {
+    }
+
+    static void write(List<Main.ScheduleEntry> entries, OutputStream out) throws IOException {
+        Map<String, Integer> index = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] refs = new int[entries.size() * 5];
+        int r = 0;
+        for (Main.ScheduleEntry entry : entries) {
+            refs[r++] = intern(entry.getId(), index, strings);
+            refs[r++] = intern(entry.getTitle(), index, strings);
+            refs[r++] = intern(entry.getMusicTitle(), index, strings);
+            refs[r++] = intern(entry.getMusicUrl(), index, strings);
+            refs[r++] = intern(entry.getMusicFile(), index, strings);
+        }
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(entries.size());
+        data.writeInt(strings.size());
+        data.writeInt(Math.toIntExact(HEADER_BYTES + (long) entries.size() * RECORD_BYTES));
+        r = 0;
+        for (Main.ScheduleEntry entry : entries) {
+            data.writeLong(entry.getDateTime().toEpochSecond(ZoneOffset.UTC) / 60);
+            data.writeInt(entry.getRepeatRule().ordinal());
+            for (int i = 0; i < 5; i++) {
+                data.writeInt(refs[r++]);
+            }
+        }
+        int offset = 0;
+        for (byte[] bytes : strings) {
+            data.writeInt(offset);
+            offset += bytes.length;
+        }
+        data.writeInt(offset);
+        for (byte[] bytes : strings) {
+            data.write(bytes);
+        }
+        data.flush();
+    }
+
+    /**
+     * 只读映射快照的前 length 字节（校验尾之前）并解码全部条目。相同字符串只解码一次，条目间共享实例。
+     */
+    static List<Main.ScheduleEntry> read(Path file, long length) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+        return new Reader(buffer).readAll();
+    }
+
+    private static int intern(String value, Map<String, Integer> index, List<byte[]> strings) {
+        Integer existing = index.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int id = strings.size();
+        index.put(value, id);
+        strings.add(value.getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    /**
+     * 在映射缓冲区上按绝对位置读取：先校验头部和结构，再逐条解码。
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final int count;
+        private final int stringCount;
+        private final int offsetsAt;
+        private final int bytesAt;
+        private final String[] strings;
+
+        private Reader(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是日程二进制快照");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("不支持的快照版本：" + buffer.getInt(4));
+            }
+            this.count = buffer.getInt(8);
+            this.stringCount = buffer.getInt(12);
+            this.offsetsAt = buffer.getInt(16);
+            long stringsAt = offsetsAt + (stringCount + 1L) * 4;
+            if (count < 0 || stringCount < 0 || offsetsAt != HEADER_BYTES + (long) count * RECORD_BYTES
+                || stringsAt > buffer.limit()
+                || stringsAt + (long) buffer.getInt(offsetsAt + stringCount * 4) != buffer.limit()) {
+                throw new IOException("快照结构损坏");
+            }
+            this.bytesAt = (int) stringsAt;
+            this.strings = new String[stringCount];
+        }
+
+        List<Main.ScheduleEntry> readAll() {
+            List<Main.ScheduleEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(decode(i));
+            }
+            return entries;
+        }
+
+        private Main.ScheduleEntry decode(int index) {
+            int at = HEADER_BYTES + index * RECORD_BYTES;
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(buffer.getLong(at) * 60, 0, ZoneOffset.UTC);
+            return new Main.ScheduleEntry(
+                string(buffer.getInt(at + 12)),
+                string(buffer.getInt(at + 16)),
+                dateTime.toLocalDate(),
+                dateTime.toLocalTime(),
+                RULES[buffer.getInt(at + 8)],
+                string(buffer.getInt(at + 20)),
+                string(buffer.getInt(at + 24)),
+                string(buffer.getInt(at + 28))
+            );
+        }
+
+        private String string(int index) {
+            String value = strings[index];
+            if (value == null) {
+                int start = buffer.getInt(offsetsAt + index * 4);
+                int end = buffer.getInt(offsetsAt + index * 4 + 4);
+                byte[] bytes = new byte[end - start];
+                buffer.get(bytesAt + start, bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = value;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 追加式日程日志：每次增删改只追加一行记录，批量 fsync；记录数达到阈值后把日程表的当前快照写出并清空日志。
+ * 启动时先读快照，再按顺序重放日志；需要持久化确认的调用方可以等待 {@link #sync()}。
+ *
+ * <p>行格式：{@code crc32(十六进制) TAB 操作 TAB 字段...}，U 为新增/修改，D 为删除，
+ * B 为一批变更（每个字段是一条转义后的 U / D 记录，整行校验，要么全部重放、要么全部忽略）；
+ * 字段中的 \ TAB 换行 会转义。校验失败的行视为崩溃时的残缺尾部，连同其后内容一起忽略。
+ */
+final class ScheduleJournal {
+    /**
+     * 把给定的全部日程写成快照（如 schedule.xml）。
+     */
+    interface SnapshotWriter {
+        void write(List<Main.ScheduleEntry> entries) throws Exception;
+    }
+
+    private static final int COMPACT_THRESHOLD = 10_000;
+    private static final int MAX_BATCH = 1024;
+    private static final Object COMPACT = new Object();
+
+    private final Path file;
+    private final ScheduleTable source;
+    private final SnapshotWriter snapshotWriter;
+    private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final List<CompletableFuture<Void>> pendingCompactions = new ArrayList<>();
+    private FileChannel channel;
+    private Thread worker;
+    private volatile boolean running;
+    private int recordsSinceCompact;
+
+    /**
+     * @param source 运行时的日程表，压缩时读取它的快照
+     */
+    ScheduleJournal(Path file, ScheduleTable source, SnapshotWriter snapshotWriter) {
+        this.file = file;
+        this.source = source;
+        this.snapshotWriter = snapshotWriter;
+    }
+
+    /**
+     * 在 base（快照内容）之上按顺序重放日志，返回合并后的条目。
+     */
+    static List<Main.ScheduleEntry> replay(Path file, List<Main.ScheduleEntry> base) throws IOException {
+        Map<String, Main.ScheduleEntry> byId = new LinkedHashMap<>();
+        for (Main.ScheduleEntry entry : base) {
+            byId.put(entry.getId(), entry);
+        }
+        if (!Files.exists(file)) {
+            return new ArrayList<>(byId.values());
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0 || !checksum(line.substring(tab + 1)).equals(line.substring(0, tab))) {
+                    break;
+                }
+                String[] fields = line.substring(tab + 1).split("\t", -1);
+                if ("B".equals(fields[0])) {
+                    Map<String, Main.ScheduleEntry> staged = new LinkedHashMap<>(byId);
+                    boolean valid = true;
+                    for (int i = 1; i < fields.length && valid; i++) {
+                        valid = applyRecord(staged, unescape(fields[i]).split("\t", -1));
+                    }
+                    if (!valid) {
+                        break;
+                    }
+                    byId = staged;
+                } else if (!applyRecord(byId, fields)) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    private static boolean applyRecord(Map<String, Main.ScheduleEntry> byId, String[] fields) {
+        if ("D".equals(fields[0]) && fields.length == 2) {
+            byId.remove(unescape(fields[1]));
+        } else if ("U".equals(fields[0]) && fields.length == 9) {
+            Main.ScheduleEntry entry = decode(fields);
+            byId.put(entry.getId(), entry);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 打开日志文件；后台线程在第一条记录或第一次请求时才启动。
+     */
+    void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 后台线程启动之前调用：把重放得到的 entries 写成快照并清空日志，之后的记录都以它为基础。
+     * 此时日程表还没装入这些条目，不能按表压缩。
+     */
+    synchronized void rebase(List<Main.ScheduleEntry> entries) throws Exception {
+        if (worker != null) {
+            throw new IllegalStateException("日志已开始写入");
+        }
+        snapshotWriter.write(entries);
+        channel.truncate(0);
+        channel.force(true);
+    }
+
+    void upsert(Main.ScheduleEntry entry) {
+        offer(encode(entry));
+    }
+
+    void delete(String id) {
+        offer("D\t" + escape(id));
+    }
+
+    /**
+     * 一批变更写成一行。
+     */
+    void batch(List<ScheduleTable.Change> changes) {
+        StringBuilder sb = new StringBuilder("B");
+        for (ScheduleTable.Change change : changes) {
+            String record = change.current == null ? "D\t" + escape(change.id()) : encode(change.current);
+            sb.append('\t').append(escape(record));
+        }
+        offer(sb.toString());
+    }
+
+    /**
+     * 请求一次压缩：先落盘此前排队的记录，再写快照并清空日志。
+     */
+    CompletableFuture<Void> compact() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (pendingCompactions) {
+            pendingCompactions.add(done);
+        }
+        offer(COMPACT);
+        return done;
+    }
+
+    /**
+     * 此前排队的记录 fsync 完成时结束，供需要持久化确认的调用方等待。
+     */
+    CompletableFuture<Void> sync() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        offer(done);
+        return done;
+    }
+
+    /**
+     * 压缩并停止后台线程，用于退出前。
+     */
+    void close() {
+        try {
+            compact().get(10, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            System.err.println("日志压缩失败：" + ex.getMessage());
+        }
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void offer(Object item) {
+        ensureStarted();
+        queue.offer(item);
+    }
+
+    private synchronized void ensureStarted() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "schedule-journal");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void runLoop() {
+        List<Object> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                process(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                System.err.println("日志写入失败：" + ex.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 一批记录只 fsync 一次。需要压缩时（有压缩请求或记录数达到阈值），在日程表写锁内取快照并同时取走队列中已有的记录，
+     * 两者恰好对应：先把这些记录落盘，再写快照、清空日志。清空前崩溃时，重放的记录都已包含在新快照中，结果不变；
+     * 取快照之后入队的记录不在快照中，写进清空后的日志。
+     */
+    private void process(List<Object> batch) throws Exception {
+        boolean requested = append(batch);
+        while (requested || recordsSinceCompact >= COMPACT_THRESHOLD) {
+            // 先取等待者再取快照：这些请求之前的变更一定都在快照里
+            List<CompletableFuture<Void>> waiting;
+            synchronized (pendingCompactions) {
+                waiting = new ArrayList<>(pendingCompactions);
+                pendingCompactions.clear();
+            }
+            List<Object> tail = new ArrayList<>();
+            List<Main.ScheduleEntry> snapshot = source.sortedWith(() -> queue.drainTo(tail));
+            requested = append(tail);
+            if (!compactNow(snapshot, waiting)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 写入一组记录并 fsync 一次，随后完成其中的 sync 请求；返回其中是否有压缩请求。
+     */
+    private boolean append(List<Object> items) throws IOException {
+        StringBuilder pending = new StringBuilder();
+        List<CompletableFuture<Void>> synced = new ArrayList<>();
+        boolean compact = false;
+        try {
+            for (Object item : items) {
+                if (item == COMPACT) {
+                    compact = true;
+                } else if (item instanceof CompletableFuture<?>) {
+                    @SuppressWarnings("unchecked")
+                    CompletableFuture<Void> done = (CompletableFuture<Void>) item;
+                    synced.add(done);
+                } else {
+                    String payload = (String) item;
+                    pending.append(checksum(payload)).append('\t').append(payload).append('\n');
+                    recordsSinceCompact += payload.startsWith("B") ? (int) payload.chars().filter(c -> c == '\t').count() : 1;
+                }
+            }
+            flush(pending);
+            synced.forEach(f -> f.complete(null));
+        } catch (IOException ex) {
+            synced.forEach(f -> f.completeExceptionally(ex));
+            throw ex;
+        }
+        return compact;
+    }
+
+    private void flush(StringBuilder pending) throws IOException {
+        if (pending.length() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        pending.setLength(0);
+    }
+
+    private boolean compactNow(List<Main.ScheduleEntry> snapshot, List<CompletableFuture<Void>> waiting) {
+        try {
+            snapshotWriter.write(snapshot);
+            channel.truncate(0);
+            channel.force(true);
+            recordsSinceCompact = 0;
+            waiting.forEach(f -> f.complete(null));
+            return true;
+        } catch (Exception ex) {
+            waiting.forEach(f -> f.completeExceptionally(ex));
+            System.err.println("日志压缩失败：" + ex.getMessage());
+            return false;
+        }
+    }
+
+    private static String encode(Main.ScheduleEntry entry) {
+        return "U\t" + escape(entry.getId()) + '\t' + escape(entry.getTitle()) + '\t'
+            + entry.getDate() + '\t' + entry.getTime() + '\t' + entry.getRepeatRule().name() + '\t'
+            + escape(entry.getMusicTitle()) + '\t' + escape(entry.getMusicUrl()) + '\t' + escape(entry.getMusicFile());
+    }
+
+    private static Main.ScheduleEntry decode(String[] fields) {
+        return new Main.ScheduleEntry(
+            unescape(fields[1]),
+            unescape(fields[2]),
+            LocalDate.parse(fields[3]),
+            LocalTime.parse(fields[4]),
+            Main.RepeatRule.valueOf(fields[5]),
+            unescape(fields[6]),
+            unescape(fields[7]),
+            unescape(fields[8])
+        );
+    }
+
+    private static String checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
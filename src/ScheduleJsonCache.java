@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * GET /api/schedules 的响应体缓存：按日程表版本保存拼好的 JSON 数组（UTF-8），
+ * 版本未变时直接复用；版本变化后只重新拼接，各条目的 JSON 字节由条目自己缓存。
+ */
+final class ScheduleJsonCache {
+    private static final class Body {
+        final long version;
+        final byte[] bytes;
+
+        Body(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    private volatile Body cached;
+
+    /**
+     * 与 current 版本对应的响应体；调用方不得修改返回的数组。
+     */
+    byte[] body(ScheduleTable.Versioned current) {
+        Body body = cached;
+        if (body != null && body.version == current.version) {
+            return body.bytes;
+        }
+        byte[] bytes = assemble(current.entries);
+        body = cached;
+        // 并发重建时只让较新的版本留下
+        if (body == null || body.version < current.version) {
+            cached = new Body(current.version, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * 逐条写出 JSON 数组，不在内存中拼出整个响应体；用于分页和区间查询。
+     */
+    static void writeArray(List<Main.ScheduleEntry> entries, OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(entries.get(i).toJsonBytes());
+        }
+        out.write(']');
+    }
+
+    /**
+     * 先求总长再一次性复制，除结果数组外不产生中间缓冲。
+     */
+    static byte[] assemble(List<Main.ScheduleEntry> entries) {
+        int size = entries.size();
+        byte[][] parts = new byte[size][];
+        int length = 2 + Math.max(0, size - 1);
+        for (int i = 0; i < size; i++) {
+            parts[i] = entries.get(i).toJsonBytes();
+            length += parts[i].length;
+        }
+        byte[] out = new byte[length];
+        int pos = 0;
+        out[pos++] = '[';
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out[pos++] = ',';
+            }
+            System.arraycopy(parts[i], 0, out, pos, parts[i].length);
+            pos += parts[i].length;
+        }
+        out[pos] = ']';
+        return out;
+    }
+}
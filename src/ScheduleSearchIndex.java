@@ -0,0 +1,415 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标题与铃声名的全文检索：倒排索引，以字符二元组（外加单字）为词项。中文不按空格分词，
+ * 所以文本先转小写、去掉空白和标点，再逐字切分。作为日程表监听随每次增删改增量维护。
+ *
+ * <p>查询同样切成词项，按倒排表从短到长求交集得到候选，再按匹配位置排序：
+ * 标题完全相同 &gt; 标题前缀 &gt; 标题包含 &gt; 铃声名包含 &gt; 仅各词项都出现，同档内标题短的在前。
+ * 候选的得分打包成 long 放进定长小顶堆取前 limit 条，不为每个候选分配对象。
+ *
+ * <p>倒排表为按文档编号有序的 int 数组，求交是顺序归并。编号只增不复用，新文档总是追加到表尾；
+ * 删除或改了标题的文档只把编号作废，所在各表记一次作废，作废过半时整表压缩一次，
+ * 所以常见字的长表也不会让写入退化成整表移动。作废编号多于存活文档时整体重新编号。
+ */
+final class ScheduleSearchIndex implements ScheduleTable.Listener {
+    private static final class Doc {
+        final Main.ScheduleEntry entry;
+        final String title;
+        final String music;
+
+        Doc(Main.ScheduleEntry entry) {
+            this.entry = entry;
+            this.title = normalize(entry.getTitle());
+            this.music = normalize(entry.getMusicTitle());
+        }
+    }
+
+    /**
+     * 按编号升序的文档集合；dead 为其中已作废的个数。
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+        int dead;
+
+        void append(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docOf = new HashMap<>();
+    /** 按编号存放文档，作废的为 null。 */
+    private Doc[] docs = new Doc[16];
+    private int nextDoc;
+    private int live;
+
+    @Override
+    public void upserted(Main.ScheduleEntry previous, Main.ScheduleEntry current) {
+        lock.writeLock().lock();
+        try {
+            index(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removed(Main.ScheduleEntry previous) {
+        lock.writeLock().lock();
+        try {
+            retire(docOf.remove(previous.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void applied(List<ScheduleTable.Change> changes) {
+        lock.writeLock().lock();
+        try {
+            for (ScheduleTable.Change change : changes) {
+                if (change.current == null) {
+                    retire(docOf.remove(change.id()));
+                } else {
+                    index(change.current);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void reloaded(List<Main.ScheduleEntry> all) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docOf.clear();
+            docs = new Doc[Math.max(16, all.size())];
+            nextDoc = 0;
+            live = 0;
+            for (Main.ScheduleEntry entry : all) {
+                index(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按相关度返回至多 limit 条匹配的日程；查询去掉空白和标点后为空时返回空列表。
+     */
+    List<Main.ScheduleEntry> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] grams = queryGrams(q);
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt((Postings p) -> p.size));
+            int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = intersect(candidates, count, lists[i]);
+            }
+            // 小顶堆只保留得分最高的 limit 条；同分同长时编号小（较早写入）的在前
+            long[] heap = new long[Math.min(limit, count)];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int doc = candidates[i];
+                if (docs[doc] == null) {
+                    continue;
+                }
+                long key = rank(docs[doc], q, doc);
+                if (size < heap.length) {
+                    heap[size] = key;
+                    siftUp(heap, size++);
+                } else if (key > heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, size);
+                }
+            }
+            Main.ScheduleEntry[] ranked = new Main.ScheduleEntry[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = docs[(int) (heap[0] & 0xFFFFFFFFL) ^ Integer.MAX_VALUE].entry;
+                heap[0] = heap[--size];
+                siftDown(heap, size);
+            }
+            return Arrays.asList(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 建立或更新条目的索引；文本未变时只换文档内容，否则作废旧编号、以新编号追加。
+     */
+    private void index(Main.ScheduleEntry entry) {
+        Doc doc = new Doc(entry);
+        Integer existing = docOf.get(entry.getId());
+        if (existing != null) {
+            Doc old = docs[existing];
+            // 到期滚动等只改时间的更新不动倒排表
+            if (old.title.equals(doc.title) && old.music.equals(doc.music)) {
+                docs[existing] = doc;
+                return;
+            }
+            retire(existing);
+        }
+        if (nextDoc == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int id = nextDoc++;
+        docs[id] = doc;
+        docOf.put(entry.getId(), id);
+        live++;
+        for (int gram : gramsOf(doc)) {
+            postings.computeIfAbsent(gram, k -> new Postings()).append(id);
+        }
+    }
+
+    private void retire(Integer id) {
+        if (id == null) {
+            return;
+        }
+        Doc old = docs[id];
+        docs[id] = null;
+        live--;
+        for (int gram : gramsOf(old)) {
+            Postings list = postings.get(gram);
+            if (++list.dead * 2 > list.size) {
+                compact(gram, list);
+            }
+        }
+        if (nextDoc - live > live + 1024) {
+            renumber();
+        }
+    }
+
+    /**
+     * 去掉表中已作废的编号，表空时移除该词项。
+     */
+    private void compact(int gram, Postings list) {
+        int out = 0;
+        for (int i = 0; i < list.size; i++) {
+            if (docs[list.ids[i]] != null) {
+                list.ids[out++] = list.ids[i];
+            }
+        }
+        list.size = out;
+        list.dead = 0;
+        if (out == 0) {
+            postings.remove(gram);
+        } else if (out < list.ids.length / 4) {
+            list.ids = Arrays.copyOf(list.ids, Math.max(4, out * 2));
+        }
+    }
+
+    /**
+     * 把存活文档按原顺序重新编号为 0..live-1，各表就地改写，顺序不变所以无需重排。
+     */
+    private void renumber() {
+        int[] remap = new int[nextDoc];
+        Doc[] next = new Doc[Math.max(16, live * 2)];
+        int count = 0;
+        for (int i = 0; i < nextDoc; i++) {
+            if (docs[i] != null) {
+                remap[i] = count;
+                next[count++] = docs[i];
+            } else {
+                remap[i] = -1;
+            }
+        }
+        postings.values().removeIf(list -> {
+            int out = 0;
+            for (int i = 0; i < list.size; i++) {
+                int id = remap[list.ids[i]];
+                if (id >= 0) {
+                    list.ids[out++] = id;
+                }
+            }
+            list.size = out;
+            list.dead = 0;
+            return out == 0;
+        });
+        docOf.replaceAll((entryId, id) -> remap[id]);
+        docs = next;
+        nextDoc = count;
+    }
+
+    /**
+     * 把 candidates 前 count 项与 list 求交，结果原地写回，返回新长度。
+     */
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int out = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int id = candidates[i];
+            while (j < list.size && list.ids[j] < id) {
+                j++;
+            }
+            if (j < list.size && list.ids[j] == id) {
+                candidates[out++] = id;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 排序键：高位为得分，其次为标题长度（越短越大），低 32 位为取反的文档编号。
+     */
+    private static long rank(Doc doc, String q, int id) {
+        long length = Math.min(doc.title.length(), 0xFFFFFF);
+        return ((long) score(doc, q) << 56) | ((0xFFFFFF - length) << 32) | (id ^ Integer.MAX_VALUE);
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long key = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        long key = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= key) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    private static int score(Doc doc, String q) {
+        if (doc.title.equals(q)) {
+            return 4;
+        }
+        if (doc.title.startsWith(q)) {
+            return 3;
+        }
+        if (doc.title.contains(q)) {
+            return 2;
+        }
+        return doc.music.contains(q) ? 1 : 0;
+    }
+
+    private static int[] gramsOf(Doc doc) {
+        int[] title = grams(doc.title);
+        int[] music = grams(doc.music);
+        int[] all = Arrays.copyOf(title, title.length + music.length);
+        System.arraycopy(music, 0, all, title.length, music.length);
+        return distinctSorted(all);
+    }
+
+    /**
+     * 查询只需二元组（单字已被其覆盖）；只有一个字时用单字。
+     */
+    private static int[] queryGrams(String q) {
+        if (q.length() == 1) {
+            return new int[] {q.charAt(0)};
+        }
+        int[] grams = new int[q.length() - 1];
+        for (int i = 0; i + 1 < q.length(); i++) {
+            grams[i] = (q.charAt(i) << 16) | q.charAt(i + 1);
+        }
+        return distinctSorted(grams);
+    }
+
+    /**
+     * 文本的全部单字与相邻二元组，按 UTF-16 char 切分，排序去重。二元组编码为 (c1 << 16) | c2，
+     * 单字编码为 c 本身。c1 是字母、数字或代理项（补充平面字符占两个 char，整对保留），
+     * 都不为 0，两者不会冲突；查询按同样方式切分，所以补充平面字符也能命中。
+     */
+    private static int[] grams(String text) {
+        int n = text.length();
+        if (n == 0) {
+            return new int[0];
+        }
+        int[] grams = new int[2 * n - 1];
+        for (int i = 0; i < n; i++) {
+            grams[i] = text.charAt(i);
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            grams[n + i] = (text.charAt(i) << 16) | text.charAt(i + 1);
+        }
+        return distinctSorted(grams);
+    }
+
+    private static int[] distinctSorted(int[] values) {
+        Arrays.sort(values);
+        int out = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (out == 0 || values[out - 1] != values[i]) {
+                values[out++] = values[i];
+            }
+        }
+        return out == values.length ? values : Arrays.copyOf(values, out);
+    }
+
+    /**
+     * 转小写并只保留字母和数字；按码点判断，补充平面字符（如 CJK 扩展 B）的代理对整体保留。
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); ) {
+            int cp = lower.codePointAt(i);
+            if (Character.isLetterOrDigit(cp)) {
+                sb.appendCodePoint(cp);
+            }
+            i += Character.charCount(cp);
+        }
+        return sb.toString();
+    }
+}
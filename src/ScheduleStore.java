@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 日程持久化后端。运行时以 SchedulerApp 的 ScheduleTable 为准，后端只负责恢复与落盘，
+ * 不另存日程副本：写快照和区间查询都读该表的当前快照，写操作只记下变更（标记脏或追加日志）、不等待磁盘，
+ * 需要持久化确认时等待 {@link #sync()}。
+ *
+ * <p>upsert / delete / applyBatch / replaceAll 是日程表变更的通知：日志后端逐条记下参数，
+ * 按表整体保存的后端（快照、内存）只关心“有变更”，不读参数，也不为这些调用单独计指标。
+ *
+ * <p>SCHEDULER_STORAGE 选择实现：memory（不落盘）、默认的快照（XML 或二进制）、journal（追加日志）。
+ */
+interface ScheduleStore {
+    String name();
+
+    /**
+     * 读取已持久化的日程，由调用方装入日程表之后再接上 {@link #asListener()}。失败时抛出异常，后端按空表继续工作。
+     */
+    List<Main.ScheduleEntry> load() throws Exception;
+
+    /**
+     * 通知新增或整条替换（按 id）。
+     */
+    void upsert(Main.ScheduleEntry entry);
+
+    /**
+     * 通知按 id 删除。
+     */
+    void delete(String id);
+
+    /**
+     * 通知日程表的一批变更，应作为整体持久化；默认逐条 upsert / delete。
+     */
+    default void applyBatch(List<ScheduleTable.Change> changes) {
+        for (ScheduleTable.Change change : changes) {
+            if (change.current == null) {
+                delete(change.id());
+            } else {
+                upsert(change.current);
+            }
+        }
+    }
+
+    /**
+     * 通知全部内容已整体替换，例如外部文件重新加载后。
+     */
+    void replaceAll(Collection<Main.ScheduleEntry> entries);
+
+    /**
+     * 按时间排序返回 [from, to) 内的日程。
+     */
+    List<Main.ScheduleEntry> rangeScan(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 此前的写操作落盘后结束。
+     */
+    CompletableFuture<Void> sync();
+
+    /**
+     * 立即把全部内容写出（写快照或压缩日志），完成后结束。
+     */
+    CompletableFuture<Void> flush();
+
+    /**
+     * 写出剩余变更并释放后台线程，用于退出前。
+     */
+    void close();
+
+    Metrics metrics();
+
+    /**
+     * 开始监视外部对持久化文件的修改，修改后把重新读出的全部日程交给回调；
+     * 后端自己的写入不会触发。不支持的后端返回 false。
+     */
+    default boolean watch(Consumer<List<Main.ScheduleEntry>> onExternalChange) throws IOException {
+        return false;
+    }
+
+    /**
+     * 把日程表的变更按表内顺序转发给后端。
+     */
+    default ScheduleTable.Listener asListener() {
+        return new ScheduleTable.Listener() {
+            @Override
+            public void upserted(Main.ScheduleEntry previous, Main.ScheduleEntry current) {
+                upsert(current);
+            }
+
+            @Override
+            public void removed(Main.ScheduleEntry previous) {
+                delete(previous.getId());
+            }
+
+            @Override
+            public void reloaded(List<Main.ScheduleEntry> all) {
+                replaceAll(all);
+            }
+
+            @Override
+            public void applied(List<ScheduleTable.Change> changes) {
+                applyBatch(changes);
+            }
+        };
+    }
+
+    /**
+     * 后端各操作的延迟统计，按操作名分别记录。
+     */
+    final class Metrics {
+        private final Map<String, LatencyStats> ops = new ConcurrentHashMap<>();
+
+        LatencyStats op(String name) {
+            return ops.computeIfAbsent(name, key -> new LatencyStats());
+        }
+
+        /**
+         * future 结束时记录从 startNanos 起的耗时，用于 sync / flush 这类异步操作。
+         */
+        CompletableFuture<Void> timed(String name, long startNanos, CompletableFuture<Void> future) {
+            LatencyStats stats = op(name);
+            future.whenComplete((ignored, ex) -> stats.recordSince(startNanos));
+            return future;
+        }
+
+        /**
+         * 各操作一条直方图；快照后端的 load / write / reload 即快照文件的读写耗时。
+         */
+        void writeMetrics(PrometheusText out, String backend) {
+            for (Map.Entry<String, LatencyStats> entry : new TreeMap<>(ops).entrySet()) {
+                out.histogram("scheduler_store_operation_duration_seconds", "存储后端各操作耗时",
+                    entry.getValue(), "backend", backend, "op", entry.getKey());
+            }
+        }
+
+        String toJson(String backend) {
+            StringBuilder sb = new StringBuilder("{\"backend\":\"").append(backend).append("\",\"ops\":{");
+            boolean first = true;
+            for (Map.Entry<String, LatencyStats> entry : new TreeMap<>(ops).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append('"').append(entry.getKey()).append("\":").append(entry.getValue().toJson());
+            }
+            return sb.append("}}").toString();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 并发日程表：ConcurrentHashMap 负责按 id 查找，另发布一份按时间排序的不可变快照。
+ * 条目不可变，修改一律整条替换；读者（GET、落盘、Swing 列表）直接读快照，不加锁。
+ * 每次变更版本号加一，与快照一起发布，可用作 HTTP 缓存校验值。
+ */
+final class ScheduleTable {
+    static final Comparator<Main.ScheduleEntry> BY_TIME = Comparator
+        .comparing(Main.ScheduleEntry::getDate)
+        .thenComparing(Main.ScheduleEntry::getTime)
+        .thenComparing(Main.ScheduleEntry::getId);
+    private static final Main.ScheduleEntry[] EMPTY = new Main.ScheduleEntry[0];
+
+    /**
+     * 变更监听，在写锁内按变更顺序回调；实现必须很快且不能回调本表的写方法。
+     */
+    interface Listener {
+        default void upserted(Main.ScheduleEntry previous, Main.ScheduleEntry current) {
+        }
+
+        default void removed(Main.ScheduleEntry previous) {
+        }
+
+        default void reloaded(List<Main.ScheduleEntry> all) {
+        }
+
+        /**
+         * 一次 {@link #apply} 提交的全部变更；默认逐条转发给 upserted / removed。
+         */
+        default void applied(List<Change> changes) {
+            for (Change change : changes) {
+                if (change.current == null) {
+                    removed(change.previous);
+                } else {
+                    upserted(change.previous, change.current);
+                }
+            }
+        }
+    }
+
+    /**
+     * 批量修改中的一项：给出当前条目（可能为 null），返回新条目，返回 null 表示删除。
+     * 抛出异常会中止整个批次。
+     */
+    interface Mutation {
+        String id();
+
+        Main.ScheduleEntry apply(Main.ScheduleEntry current);
+    }
+
+    /**
+     * 一条已提交的变更，previous 为 null 表示新增，current 为 null 表示删除。
+     */
+    static final class Change {
+        final Main.ScheduleEntry previous;
+        final Main.ScheduleEntry current;
+
+        Change(Main.ScheduleEntry previous, Main.ScheduleEntry current) {
+            this.previous = previous;
+            this.current = current;
+        }
+
+        String id() {
+            return current != null ? current.getId() : previous.getId();
+        }
+    }
+
+    /**
+     * 批次中第 index 项抛出异常，整个批次未生效。
+     */
+    static final class BatchRejected extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int index;
+
+        BatchRejected(int index, RuntimeException cause) {
+            super(cause.getMessage(), cause);
+            this.index = index;
+        }
+    }
+
+    /**
+     * 某一版本的排序快照；版本号只增不减，每次变更加一。
+     */
+    static final class Versioned {
+        final long version;
+        final List<Main.ScheduleEntry> entries;
+
+        private Versioned(long version, List<Main.ScheduleEntry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Main.ScheduleEntry> byId = new ConcurrentHashMap<>();
+    /** 写者之间互斥，保证快照与 byId 同步推进；读者从不获取。 */
+    private final Object writeLock = new Object();
+    private volatile Versioned snapshot = new Versioned(0, List.of());
+    private Main.ScheduleEntry[] sorted = EMPTY;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    Main.ScheduleEntry get(String id) {
+        return byId.get(id);
+    }
+
+    void put(Main.ScheduleEntry entry) {
+        synchronized (writeLock) {
+            Main.ScheduleEntry old = byId.put(entry.getId(), entry);
+            publish(old, entry);
+            for (Listener listener : listeners) {
+                listener.upserted(old, entry);
+            }
+        }
+    }
+
+    Main.ScheduleEntry remove(String id) {
+        synchronized (writeLock) {
+            Main.ScheduleEntry old = byId.remove(id);
+            if (old != null) {
+                publish(old, null);
+                for (Listener listener : listeners) {
+                    listener.removed(old);
+                }
+            }
+            return old;
+        }
+    }
+
+    /**
+     * 仅当表中仍是 expected 这一实例时替换，防止覆盖并发删除或更新。
+     */
+    boolean replace(Main.ScheduleEntry expected, Main.ScheduleEntry updated) {
+        synchronized (writeLock) {
+            if (!byId.replace(expected.getId(), expected, updated)) {
+                return false;
+            }
+            publish(expected, updated);
+            for (Listener listener : listeners) {
+                listener.upserted(expected, updated);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 原子地按顺序执行一批修改：先在暂存区逐项求值，任何一项抛出异常时表不变并抛出 {@link BatchRejected}；
+     * 全部成功后一次性提交，只发布一份新快照（版本号只加一），监听者收到一次 applied。
+     * 同一 id 的多项修改按顺序叠加，只产生一条变更。
+     */
+    List<Change> apply(List<? extends Mutation> mutations) {
+        synchronized (writeLock) {
+            Map<String, Main.ScheduleEntry> staged = new LinkedHashMap<>();
+            for (int i = 0; i < mutations.size(); i++) {
+                Mutation mutation = mutations.get(i);
+                String id = mutation.id();
+                Main.ScheduleEntry current = staged.containsKey(id) ? staged.get(id) : byId.get(id);
+                Main.ScheduleEntry next;
+                try {
+                    next = mutation.apply(current);
+                } catch (RuntimeException ex) {
+                    throw new BatchRejected(i, ex);
+                }
+                if (next != null && !next.getId().equals(id)) {
+                    throw new BatchRejected(i, new IllegalArgumentException("修改不能改变 id"));
+                }
+                staged.put(id, next);
+            }
+
+            List<Change> changes = new ArrayList<>(staged.size());
+            for (Map.Entry<String, Main.ScheduleEntry> entry : staged.entrySet()) {
+                Main.ScheduleEntry previous = byId.get(entry.getKey());
+                Main.ScheduleEntry next = entry.getValue();
+                if (previous == next) {
+                    continue;
+                }
+                if (next == null) {
+                    byId.remove(entry.getKey());
+                } else {
+                    byId.put(entry.getKey(), next);
+                }
+                changes.add(new Change(previous, next));
+            }
+            if (changes.isEmpty()) {
+                return changes;
+            }
+            if (changes.size() == 1) {
+                publish(changes.get(0).previous, changes.get(0).current);
+            } else {
+                Main.ScheduleEntry[] next = byId.values().toArray(EMPTY);
+                Arrays.sort(next, BY_TIME);
+                install(next);
+            }
+            List<Change> committed = Collections.unmodifiableList(changes);
+            for (Listener listener : listeners) {
+                listener.applied(committed);
+            }
+            return committed;
+        }
+    }
+
+    boolean contains(Main.ScheduleEntry entry) {
+        return byId.get(entry.getId()) == entry;
+    }
+
+    void replaceAll(Collection<Main.ScheduleEntry> entries) {
+        synchronized (writeLock) {
+            byId.clear();
+            for (Main.ScheduleEntry entry : entries) {
+                byId.put(entry.getId(), entry);
+            }
+            Main.ScheduleEntry[] next = byId.values().toArray(EMPTY);
+            Arrays.sort(next, BY_TIME);
+            install(next);
+            for (Listener listener : listeners) {
+                listener.reloaded(snapshot.entries);
+            }
+        }
+    }
+
+    /**
+     * 当前按时间排序的不可变快照，无锁读取。
+     */
+    List<Main.ScheduleEntry> sorted() {
+        return snapshot.entries;
+    }
+
+    /**
+     * 当前快照连同其版本号，两者保证对应。
+     */
+    Versioned versioned() {
+        return snapshot;
+    }
+
+    /**
+     * 在写锁内执行 action 并取当前快照：监听者在此之前收到的变更都已反映在快照中，之后收到的都不在其中。
+     * action 不能修改本表。
+     */
+    List<Main.ScheduleEntry> sortedWith(Runnable action) {
+        synchronized (writeLock) {
+            action.run();
+            return snapshot.entries;
+        }
+    }
+
+    /**
+     * 快照中时间落在 [from, to) 的连续片段，二分定位，不复制。
+     */
+    List<Main.ScheduleEntry> between(LocalDateTime from, LocalDateTime to) {
+        List<Main.ScheduleEntry> view = snapshot.entries;
+        int start = lowerBound(view, from);
+        int end = lowerBound(view, to);
+        return start >= end ? List.of() : view.subList(start, end);
+    }
+
+    /**
+     * 有序片段 view 中排在 last 之后的部分，用于游标翻页；last 不必仍在表中。
+     */
+    static List<Main.ScheduleEntry> after(List<Main.ScheduleEntry> view, Main.ScheduleEntry last) {
+        int pos = Collections.binarySearch(view, last, BY_TIME);
+        int start = pos >= 0 ? pos + 1 : -pos - 1;
+        return view.subList(start, view.size());
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    private static int lowerBound(List<Main.ScheduleEntry> view, LocalDateTime at) {
+        LocalDate date = at.toLocalDate();
+        LocalTime time = at.toLocalTime();
+        int lo = 0;
+        int hi = view.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Main.ScheduleEntry entry = view.get(mid);
+            int cmp = entry.getDate().compareTo(date);
+            if (cmp == 0) {
+                cmp = entry.getTime().compareTo(time);
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 写时复制：二分定位删除/插入点，线性复制出新数组，不重新排序。
+     */
+    private void publish(Main.ScheduleEntry removed, Main.ScheduleEntry added) {
+        Main.ScheduleEntry[] current = sorted;
+        int removeAt = removed == null ? -1 : Arrays.binarySearch(current, removed, BY_TIME);
+        int length = current.length - (removeAt >= 0 ? 1 : 0) + (added == null ? 0 : 1);
+        Main.ScheduleEntry[] next = new Main.ScheduleEntry[length];
+        int write = 0;
+        int insertAt = -1;
+        if (added != null) {
+            int pos = Arrays.binarySearch(current, added, BY_TIME);
+            insertAt = pos >= 0 ? pos : -pos - 1;
+        }
+        for (int read = 0; read <= current.length; read++) {
+            if (read == insertAt) {
+                next[write++] = added;
+            }
+            if (read < current.length && read != removeAt) {
+                next[write++] = current[read];
+            }
+        }
+        install(next);
+    }
+
+    private void install(Main.ScheduleEntry[] next) {
+        sorted = next;
+        snapshot = new Versioned(snapshot.version + 1, Collections.unmodifiableList(Arrays.asList(next)));
+    }
+}
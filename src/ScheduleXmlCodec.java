@@ -0,0 +1,131 @@
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * schedule.xml 的流式编解码：StAX 逐个读写 entry，不在内存里构建 DOM。
+ * 格式与旧的 DOM 实现一致；缺少 id 的旧文件读入时会分配新 id。
+ */
+final class ScheduleXmlCodec {
+    private static final XMLInputFactory INPUT = createInputFactory();
+    private static final XMLOutputFactory OUTPUT = XMLOutputFactory.newInstance();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] FIELDS = {"id", "title", "date", "time", "repeat", "musicTitle", "musicUrl", "musicFile"};
+
+    private ScheduleXmlCodec() {
+    }
+
+    static List<Main.ScheduleEntry> read(InputStream in) throws Exception {
+        XMLStreamReader reader = INPUT.createXMLStreamReader(in);
+        List<Main.ScheduleEntry> list = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "entry".equals(reader.getLocalName())) {
+                    list.add(readEntry(reader));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return list;
+    }
+
+    static void write(List<Main.ScheduleEntry> entries, OutputStream out) throws Exception {
+        Writer buffered = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        XMLStreamWriter writer = OUTPUT.createXMLStreamWriter(buffered);
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeCharacters("\n");
+        writer.writeStartElement("schedules");
+        for (Main.ScheduleEntry entry : entries) {
+            writer.writeCharacters("\n  ");
+            writer.writeStartElement("entry");
+            writeField(writer, "id", entry.getId());
+            writeField(writer, "title", entry.getTitle());
+            writeField(writer, "date", entry.getDate().format(Main.SchedulerApp.DATE_FORMAT));
+            writeField(writer, "time", entry.getTime().format(Main.SchedulerApp.TIME_FORMAT));
+            writeField(writer, "repeat", entry.getRepeatRule().name());
+            writeField(writer, "musicTitle", entry.getMusicTitle());
+            writeField(writer, "musicUrl", entry.getMusicUrl());
+            writeField(writer, "musicFile", entry.getMusicFile());
+            writer.writeCharacters("\n  ");
+            writer.writeEndElement();
+        }
+        writer.writeCharacters("\n");
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        buffered.flush();
+    }
+
+    /**
+     * 读取当前 entry 直到其结束标签；同名字段只取第一个，缺失的文本字段按空串处理。
+     */
+    private static Main.ScheduleEntry readEntry(XMLStreamReader reader) throws Exception {
+        String[] values = new String[FIELDS.length];
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                int field = fieldIndex(reader.getLocalName());
+                if (field >= 0 && values[field] == null) {
+                    values[field] = reader.getElementText();
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return new Main.ScheduleEntry(
+            values[0],
+            orEmpty(values[1]),
+            LocalDate.parse(orEmpty(values[2]), Main.SchedulerApp.DATE_FORMAT),
+            LocalTime.parse(orEmpty(values[3]), Main.SchedulerApp.TIME_FORMAT),
+            Main.RepeatRule.valueOf(orEmpty(values[4])),
+            values[5],
+            values[6],
+            values[7]
+        );
+    }
+
+    private static void writeField(XMLStreamWriter writer, String name, String value) throws Exception {
+        writer.writeCharacters("\n    ");
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static int fieldIndex(String name) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
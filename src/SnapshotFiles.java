@@ -0,0 +1,315 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 崩溃安全的快照文件：先写临时文件并 fsync，再原子改名覆盖；主文件在任何时刻都是完整的某一版。
+ * 覆盖前把旧版本复制为 .1，更早的依次后移为 .2 …，至多每个轮转间隔一次。
+ * 文件末尾追加 XML 注释形式的 CRC32 校验尾（二进制快照也用同一格式），启动时从最新一代开始找第一份校验通过且能解析的文件；
+ * 主文件的校验尾与内容不符但仍能解析时视为手工编辑，照常加载并警告，不回退备份。
+ */
+final class SnapshotFiles {
+    private static final String FOOTER_PREFIX = "<!-- crc32:";
+    private static final int TAIL_BYTES = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 快照内容，写入时不要关闭传入的流。
+     */
+    interface Content {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    /**
+     * 快照解析器。
+     */
+    interface Parser<T> {
+        T parse(InputStream in) throws Exception;
+    }
+
+    /**
+     * 按文件解析，length 为去掉校验尾后的内容长度，供内存映射等随机访问方式使用。
+     */
+    interface FileParser<T> {
+        T parse(Path file, long length) throws Exception;
+    }
+
+    /**
+     * 恢复结果：内容及其来源文件。
+     */
+    static final class Recovered<T> {
+        final T value;
+        final Path source;
+        final boolean fromBackup;
+
+        Recovered(T value, Path source, boolean fromBackup) {
+            this.value = value;
+            this.source = source;
+            this.fromBackup = fromBackup;
+        }
+    }
+
+    private final Path target;
+    private final int generations;
+    private final long rotateIntervalMillis;
+    /** 最近一次由本进程写出的文件指纹（校验值、长度、修改时间），用于区分外部修改。 */
+    private volatile String lastWritten;
+    private long lastRotatedAt;
+
+    /**
+     * 每次写入都轮转备份。
+     */
+    SnapshotFiles(Path target, int generations) {
+        this(target, generations, 0);
+    }
+
+    /**
+     * @param rotateIntervalMillis 两次轮转的最小间隔；间隔内的写入直接覆盖主文件，不再产生备份
+     */
+    SnapshotFiles(Path target, int generations, long rotateIntervalMillis) {
+        this.target = target.toAbsolutePath();
+        this.generations = generations;
+        this.rotateIntervalMillis = rotateIntervalMillis;
+    }
+
+    boolean exists() {
+        for (Path path : candidates()) {
+            if (Files.exists(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 流式写出内容并计算 CRC，追加校验尾后原子替换目标文件；到了轮转间隔时先把原文件留作 .1。
+     */
+    synchronized void write(Content content) throws Exception {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        String checksum;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedOutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32());
+            content.writeTo(checked);
+            checked.flush();
+            checksum = String.format("%08x", checked.getChecksum().getValue());
+            out.write(("\n" + FOOTER_PREFIX + checksum + " -->\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            channel.force(true);
+        }
+        rotate();
+        move(temp, target);
+        lastWritten = fingerprint(checksum, target);
+        syncDirectory();
+    }
+
+    /**
+     * 依次尝试主文件和各代备份；主文件损坏时移到 .corrupt 保留现场。全部失败时抛出最后一个异常。
+     */
+    <T> Recovered<T> recover(Parser<T> parser) throws Exception {
+        return recoverFile(streaming(parser));
+    }
+
+    /**
+     * 只读主文件，不回退备份；解析失败直接报错。用于外部修改后的重新加载。
+     */
+    <T> T readCurrent(FileParser<T> parser) throws Exception {
+        return parseEdited(target, parser);
+    }
+
+    /**
+     * 主文件是否仍是本进程最近一次写出的那份。只比校验尾不够：保留旧校验尾的手工编辑也要算外部修改。
+     * 与 write 同步：改名落地到指纹更新之间被监视线程看到的文件不会误判为外部修改。
+     */
+    synchronized boolean isOwnWrite() throws IOException {
+        String written = lastWritten;
+        if (written == null || !Files.exists(target)) {
+            return false;
+        }
+        String tail = readTail(target, Files.size(target));
+        int idx = tail.lastIndexOf(FOOTER_PREFIX);
+        int hexStart = idx + FOOTER_PREFIX.length();
+        return idx >= 0 && tail.length() >= hexStart + 8
+            && written.equals(fingerprint(tail.substring(hexStart, hexStart + 8), target));
+    }
+
+    private static String fingerprint(String checksum, Path path) throws IOException {
+        return checksum + ':' + Files.size(path) + ':' + Files.getLastModifiedTime(path).toMillis();
+    }
+
+    Path target() {
+        return target;
+    }
+
+    static <T> FileParser<T> streaming(Parser<T> parser) {
+        return (path, length) -> {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+                return parser.parse(in);
+            }
+        };
+    }
+
+    /**
+     * 同 {@link #recover(Parser)}，但把文件路径和内容长度交给解析器自行读取。
+     */
+    <T> Recovered<T> recoverFile(FileParser<T> parser) throws Exception {
+        Exception last = new IOException("没有可用的快照");
+        List<Path> candidates = candidates();
+        for (int i = 0; i < candidates.size(); i++) {
+            Path path = candidates.get(i);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try {
+                T value;
+                if (i == 0) {
+                    value = parseEdited(path, parser);
+                } else {
+                    long length = contentLength(path);
+                    if (length < 0) {
+                        throw new IOException("校验失败：" + path.getFileName());
+                    }
+                    value = parser.parse(path, length);
+                }
+                if (i > 0 && Files.exists(target)) {
+                    move(target, target.resolveSibling(target.getFileName() + ".corrupt"));
+                }
+                return new Recovered<>(value, path, i > 0);
+            } catch (Exception ex) {
+                last = ex;
+            }
+        }
+        throw last;
+    }
+
+    /**
+     * 校验通过时按内容长度解析；校验尾与内容不符（多半是保留了旧校验行的手工编辑）时按无校验尾的文件整份交给解析器，
+     * 能解析就加载并警告，下次保存会重写校验尾。XML 的校验尾本身是注释，不影响解析；二进制快照多出的尾部过不了结构检查。
+     */
+    private static <T> T parseEdited(Path path, FileParser<T> parser) throws Exception {
+        long length = contentLength(path);
+        if (length >= 0) {
+            return parser.parse(path, length);
+        }
+        T value;
+        try {
+            value = parser.parse(path, Files.size(path));
+        } catch (Exception ex) {
+            throw new IOException("校验失败且无法解析：" + path.getFileName() + "（" + ex.getMessage() + "）", ex);
+        }
+        System.err.println("警告：" + path.getFileName() + " 的校验行与内容不符，按手工编辑加载");
+        return value;
+    }
+
+    /**
+     * 有校验尾时流式核对 CRC，返回校验尾之前的内容长度，校验失败返回 -1；
+     * 没有校验尾的旧文件返回文件长度，交给解析器判断。
+     */
+    static long contentLength(Path path) throws IOException {
+        long size = Files.size(path);
+        int tailLength = (int) Math.min(TAIL_BYTES, size);
+        String tail = readTail(path, size);
+        int idx = tail.lastIndexOf(FOOTER_PREFIX);
+        if (idx < 1) {
+            return size;
+        }
+        long footerStart = size - tailLength + idx - 1;
+        int hexStart = idx + FOOTER_PREFIX.length();
+        if (footerStart < 0 || tail.charAt(idx - 1) != '\n' || tail.length() < hexStart + 8) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            long remaining = footerStart;
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (n < 0) {
+                    return -1;
+                }
+                crc.update(buffer, 0, n);
+                remaining -= n;
+            }
+        }
+        return String.format("%08x", crc.getValue()).equals(tail.substring(hexStart, hexStart + 8)) ? footerStart : -1;
+    }
+
+    private static String readTail(Path path, long size) throws IOException {
+        int tailLength = (int) Math.min(TAIL_BYTES, size);
+        ByteBuffer tailBuffer = ByteBuffer.allocate(tailLength);
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            channel.position(size - tailLength);
+            while (tailBuffer.hasRemaining() && channel.read(tailBuffer) >= 0) {
+                // 读满尾部
+            }
+        }
+        return new String(tailBuffer.array(), 0, tailBuffer.position(), StandardCharsets.ISO_8859_1);
+    }
+
+    private List<Path> candidates() {
+        List<Path> list = new ArrayList<>();
+        list.add(target);
+        for (int i = 1; i <= generations; i++) {
+            list.add(backup(i));
+        }
+        return list;
+    }
+
+    private Path backup(int generation) {
+        return target.resolveSibling(target.getFileName() + "." + generation);
+    }
+
+    /**
+     * 主文件原地保留、只复制出 .1，不用改名腾位置，因此随后的覆盖是一次原子替换；轮转中途崩溃最多丢一代备份。
+     * 不用硬链接：外部编辑器原地改写主文件时会连同备份一起改掉。
+     */
+    private void rotate() throws IOException {
+        long now = System.currentTimeMillis();
+        if (generations <= 0 || !Files.exists(target) || now - lastRotatedAt < rotateIntervalMillis) {
+            return;
+        }
+        Files.deleteIfExists(backup(generations));
+        for (int i = generations - 1; i >= 1; i--) {
+            if (Files.exists(backup(i))) {
+                move(backup(i), backup(i + 1));
+            }
+        }
+        Files.copy(target, backup(1), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        lastRotatedAt = now;
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 改名本身也要落盘；Windows 不支持打开目录，忽略即可。
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+}
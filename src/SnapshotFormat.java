@@ -0,0 +1,68 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全量快照的文件格式：schedule.xml（StAX）或 schedule.bin（内存映射）。
+ */
+enum SnapshotFormat {
+    XML {
+        @Override
+        SnapshotFiles.Recovered<? extends List<Main.ScheduleEntry>> recover(SnapshotFiles files) throws Exception {
+            return files.recover(ScheduleXmlCodec::read);
+        }
+
+        @Override
+        List<Main.ScheduleEntry> readCurrent(SnapshotFiles files) throws Exception {
+            return files.readCurrent(SnapshotFiles.streaming(ScheduleXmlCodec::read));
+        }
+
+        @Override
+        void write(SnapshotFiles files, List<Main.ScheduleEntry> entries) throws Exception {
+            files.write(out -> ScheduleXmlCodec.write(entries, out));
+        }
+    },
+    BINARY {
+        @Override
+        SnapshotFiles.Recovered<? extends List<Main.ScheduleEntry>> recover(SnapshotFiles files) throws Exception {
+            return files.recoverFile(ScheduleBinaryCodec::read);
+        }
+
+        @Override
+        List<Main.ScheduleEntry> readCurrent(SnapshotFiles files) throws Exception {
+            return files.readCurrent(ScheduleBinaryCodec::read);
+        }
+
+        @Override
+        void write(SnapshotFiles files, List<Main.ScheduleEntry> entries) throws Exception {
+            files.write(out -> ScheduleBinaryCodec.write(entries, out));
+        }
+    };
+
+    abstract SnapshotFiles.Recovered<? extends List<Main.ScheduleEntry>> recover(SnapshotFiles files) throws Exception;
+
+    /**
+     * 只读主文件，不回退备份。
+     */
+    abstract List<Main.ScheduleEntry> readCurrent(SnapshotFiles files) throws Exception;
+
+    abstract void write(SnapshotFiles files, List<Main.ScheduleEntry> entries) throws Exception;
+
+    /**
+     * 读取最新一份完好的快照；还没有快照但存在 legacyXml 时从中导入，都没有时返回空表。
+     */
+    List<Main.ScheduleEntry> load(SnapshotFiles files, Path legacyXml) throws Exception {
+        if (files.exists()) {
+            SnapshotFiles.Recovered<? extends List<Main.ScheduleEntry>> recovered = recover(files);
+            if (recovered.fromBackup) {
+                System.err.println("快照损坏，已从 " + recovered.source.getFileName() + " 恢复");
+            }
+            return recovered.value;
+        }
+        if (legacyXml != null && Files.exists(legacyXml)) {
+            return XML.recover(new SnapshotFiles(legacyXml, 0)).value;
+        }
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 全量快照后端（默认）：变更只标记为脏，由 {@link BackgroundSaver} 合并后按 SchedulerApp 日程表的当前快照整体重写，
+ * 后端自己不保存日程副本。变更通知不看参数，也不单独计时；耗时统计记在真正写文件的 write 上。
+ */
+final class SnapshotScheduleStore implements ScheduleStore {
+    private final ScheduleTable source;
+    private final SnapshotFiles files;
+    private final SnapshotFormat format;
+    private final Path legacyXml;
+    private final BackgroundSaver saver;
+    private final Metrics metrics = new Metrics();
+    private SnapshotWatcher watcher;
+    private volatile CompletableFuture<Void> lastDirty = CompletableFuture.completedFuture(null);
+
+    /**
+     * @param source 运行时的日程表，保存时读取它的快照
+     * @param legacyXml 还没有快照时从中导入的 schedule.xml，可为 null
+     */
+    SnapshotScheduleStore(ScheduleTable source, SnapshotFiles files, SnapshotFormat format, Path legacyXml,
+                          long intervalMillis, int batchThreshold) {
+        this.source = source;
+        this.files = files;
+        this.format = format;
+        this.legacyXml = legacyXml;
+        this.saver = new BackgroundSaver(source, this::writeSnapshot, intervalMillis, batchThreshold);
+    }
+
+    @Override
+    public String name() {
+        return format == SnapshotFormat.BINARY ? "binary" : "xml";
+    }
+
+    /**
+     * 从旧 XML 导入时当场按读出的内容写一份快照：此时日程表还没装入这些条目，不能交给后台按表保存。
+     */
+    @Override
+    public List<Main.ScheduleEntry> load() throws Exception {
+        long start = System.nanoTime();
+        boolean imported = !files.exists();
+        List<Main.ScheduleEntry> loaded = format.load(files, legacyXml);
+        metrics.op("load").recordSince(start);
+        if (imported && !loaded.isEmpty()) {
+            writeSnapshot(loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void upsert(Main.ScheduleEntry entry) {
+        markDirty();
+    }
+
+    @Override
+    public void delete(String id) {
+        markDirty();
+    }
+
+    /**
+     * 整批只标记一次脏，后台保存时一起写进同一份快照。
+     */
+    @Override
+    public void applyBatch(List<ScheduleTable.Change> changes) {
+        markDirty();
+    }
+
+    @Override
+    public void replaceAll(Collection<Main.ScheduleEntry> entries) {
+        markDirty();
+    }
+
+    @Override
+    public List<Main.ScheduleEntry> rangeScan(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        List<Main.ScheduleEntry> range = source.between(from, to);
+        metrics.op("rangeScan").recordSince(start);
+        return range;
+    }
+
+    @Override
+    public CompletableFuture<Void> sync() {
+        return metrics.timed("sync", System.nanoTime(), lastDirty);
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return metrics.timed("flush", System.nanoTime(), saver.flushNow());
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        saver.close();
+    }
+
+    /**
+     * 外部修改的文件只读主文件、不回退备份；无法解析时保留内存中的日程。
+     */
+    @Override
+    public boolean watch(Consumer<List<Main.ScheduleEntry>> onExternalChange) throws IOException {
+        watcher = new SnapshotWatcher(files, () -> {
+            long start = System.nanoTime();
+            List<Main.ScheduleEntry> fresh;
+            try {
+                fresh = format.readCurrent(files);
+            } catch (Exception ex) {
+                System.err.println("外部修改的快照无法加载：" + ex.getMessage());
+                return;
+            }
+            metrics.op("reload").recordSince(start);
+            onExternalChange.accept(fresh);
+        });
+        watcher.start();
+        return true;
+    }
+
+    @Override
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    private void markDirty() {
+        lastDirty = saver.markDirty();
+    }
+
+    private synchronized void writeSnapshot(List<Main.ScheduleEntry> entries) throws Exception {
+        long start = System.nanoTime();
+        format.write(files, entries);
+        metrics.op("write").recordSince(start);
+    }
+}
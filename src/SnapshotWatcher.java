@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监视快照文件的外部修改：WatchService 监听所在目录，同一文件的连续事件合并后回调一次。
+ * 本进程自己写出的快照（校验尾与最近一次写入一致）不会触发回调，避免重新加载的循环。
+ */
+final class SnapshotWatcher {
+    /** 编辑器保存常分几次写，静默这么久才认为写完。 */
+    private static final long SETTLE_MILLIS = 300;
+
+    private final SnapshotFiles files;
+    private final Runnable onExternalChange;
+    private WatchService service;
+    private Thread worker;
+
+    SnapshotWatcher(SnapshotFiles files, Runnable onExternalChange) {
+        this.files = files;
+        this.onExternalChange = onExternalChange;
+    }
+
+    void start() throws IOException {
+        Path dir = files.target().getParent();
+        service = FileSystems.getDefault().newWatchService();
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        worker = new Thread(this::runLoop, "schedule-watch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void close() {
+        try {
+            if (service != null) {
+                service.close();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void runLoop() {
+        Path name = files.target().getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean touched = drain(key, name);
+                while (touched) {
+                    WatchKey more = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (more == null) {
+                        break;
+                    }
+                    drain(more, name);
+                }
+                if (touched) {
+                    fireIfExternal();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // close() 结束监视
+        }
+    }
+
+    private void fireIfExternal() {
+        try {
+            if (Files.exists(files.target()) && !files.isOwnWrite()) {
+                onExternalChange.run();
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("重新加载快照失败：" + ex.getMessage());
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path name) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                touched = true;
+            }
+        }
+        key.reset();
+        return touched;
+    }
+}
@@ -0,0 +1,294 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 前端静态资源：文件读入内存后同时保存原文和 gzip 两份，按 Accept-Encoding 选择，
+ * 带 ETag / Cache-Control，If-None-Match 命中时返回 304。每次请求只 stat 一次文件，
+ * 修改时间或大小变化才重新读取和压缩。
+ *
+ * <p>除 {@link #mount} 显式挂载的路径外，还提供 root 目录下扩展名已知的文件（不含隐藏文件和子目录穿越）。
+ */
+final class StaticAssets {
+    /** 超过此大小的文件不缓存，每次直接从磁盘发送原文。 */
+    private static final long MAX_CACHED_BYTES = 4L * 1024 * 1024;
+    /** 小于此大小的文件压缩收益不抵开销，只保留原文。 */
+    private static final int MIN_GZIP_BYTES = 512;
+    private static final Map<String, String> TYPES = Map.of(
+        "html", "text/html; charset=utf-8",
+        "css", "text/css; charset=utf-8",
+        "js", "text/javascript; charset=utf-8",
+        "json", "application/json; charset=utf-8",
+        "svg", "image/svg+xml",
+        "png", "image/png",
+        "jpg", "image/jpeg",
+        "ico", "image/x-icon",
+        "woff2", "font/woff2"
+    );
+    private static final Set<String> COMPRESSIBLE = Set.of("html", "css", "js", "json", "svg");
+
+    private static final class Asset {
+        final FileTime modified;
+        final long size;
+        final String contentType;
+        final String cacheControl;
+        /** 超过 MAX_CACHED_BYTES 时为 null。 */
+        final byte[] identity;
+        final String identityTag;
+        /** 压缩后不更小或类型不适合时为 null。 */
+        final byte[] gzip;
+        final String gzipTag;
+
+        Asset(FileTime modified, long size, String contentType, String cacheControl, byte[] identity, byte[] gzip) {
+            this.modified = modified;
+            this.size = size;
+            this.contentType = contentType;
+            this.cacheControl = cacheControl;
+            this.identity = identity;
+            this.gzip = gzip;
+            if (identity == null) {
+                this.identityTag = null;
+                this.gzipTag = null;
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(identity);
+            String tag = Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(identity.length);
+            this.identityTag = "\"" + tag + "\"";
+            this.gzipTag = "\"" + tag + "-gz\"";
+        }
+    }
+
+    private final Path root;
+    private final Map<String, Path> mounts = new ConcurrentHashMap<>();
+    private final Map<Path, Asset> cache = new ConcurrentHashMap<>();
+    private final String fallbackHtml;
+
+    /**
+     * @param root         额外资源所在目录，可以不存在
+     * @param fallbackHtml 挂载的 HTML 文件缺失时返回的提示页
+     */
+    StaticAssets(Path root, String fallbackHtml) {
+        this.root = root.toAbsolutePath().normalize();
+        this.fallbackHtml = fallbackHtml;
+    }
+
+    /**
+     * 把请求路径映射到指定文件，例如 "/" 映射到前端单页。
+     */
+    StaticAssets mount(String path, Path file) {
+        mounts.put(path, file.toAbsolutePath().normalize());
+        return this;
+    }
+
+    void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        boolean head = "HEAD".equalsIgnoreCase(method);
+        if (!head && !"GET".equalsIgnoreCase(method)) {
+            sendPlain(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        Path file = resolve(path);
+        Asset asset = null;
+        if (file != null) {
+            try {
+                asset = load(file);
+            } catch (NoSuchFileException ex) {
+                cache.remove(file);
+            }
+        }
+        if (asset == null) {
+            if (mounts.containsKey(path) && fallbackHtml != null) {
+                send(exchange, 200, "text/html; charset=utf-8", fallbackHtml.getBytes(StandardCharsets.UTF_8), head);
+            } else {
+                sendPlain(exchange, 404, "Not Found");
+            }
+            return;
+        }
+        if (asset.identity == null) {
+            sendUncached(exchange, file, asset, head);
+            return;
+        }
+
+        boolean gzip = asset.gzip != null && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        String etag = gzip ? asset.gzipTag : asset.identityTag;
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", etag);
+        headers.set("Cache-Control", asset.cacheControl);
+        if (asset.gzip != null) {
+            headers.set("Vary", "Accept-Encoding");
+        }
+        if (etagMatches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        send(exchange, 200, asset.contentType, gzip ? asset.gzip : asset.identity, head);
+    }
+
+    /**
+     * If-None-Match 按弱比较：忽略 W/ 前缀，* 匹配任意版本。
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * gzip 或 * 出现且 q 不为 0 时视为接受。
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException ignored) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path resolve(String path) {
+        if (path == null) {
+            return null;
+        }
+        Path mounted = mounts.get(path);
+        if (mounted != null) {
+            return mounted;
+        }
+        if (!path.startsWith("/") || path.contains("/.") || typeOf(path) == null) {
+            return null;
+        }
+        try {
+            Path file = root.resolve(path.substring(1)).normalize();
+            return file.startsWith(root) ? file : null;
+        } catch (InvalidPathException ex) {
+            return null;
+        }
+    }
+
+    private Asset load(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attrs.isRegularFile()) {
+            return null;
+        }
+        Asset cached = cache.get(file);
+        if (cached != null && cached.modified.equals(attrs.lastModifiedTime()) && cached.size == attrs.size()) {
+            return cached;
+        }
+        String extension = extension(file.getFileName().toString());
+        String type = TYPES.getOrDefault(extension, "application/octet-stream");
+        String cacheControl = "html".equals(extension) ? "no-cache" : "public, max-age=3600";
+        if (attrs.size() > MAX_CACHED_BYTES) {
+            cache.remove(file);
+            return new Asset(attrs.lastModifiedTime(), attrs.size(), type, cacheControl, null, null);
+        }
+        byte[] identity = Files.readAllBytes(file);
+        byte[] gzip = COMPRESSIBLE.contains(extension) && identity.length >= MIN_GZIP_BYTES ? gzip(identity) : null;
+        if (gzip != null && gzip.length >= identity.length) {
+            gzip = null;
+        }
+        // 以读取前的属性入缓存：读取期间文件又被改动时，下次请求会再读一次
+        Asset asset = new Asset(attrs.lastModifiedTime(), attrs.size(), type, cacheControl, identity, gzip);
+        cache.put(file, asset);
+        return asset;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static String typeOf(String path) {
+        return TYPES.get(extension(path));
+    }
+
+    private static String extension(String name) {
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        return dot > slash ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static void sendUncached(HttpExchange exchange, Path file, Asset asset, boolean head) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", asset.contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", Long.toString(asset.size));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream os = exchange.getResponseBody()) {
+            Files.copy(file, os);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body, boolean head) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static void sendPlain(HttpExchange exchange, int status, String text) throws IOException {
+        send(exchange, status, "text/plain; charset=utf-8", text.getBytes(StandardCharsets.UTF_8), false);
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮（秒 / 分 / 时 / 天），插入与取消均为 O(1)，远期条目逐级下放。
+ * 适合几十万到上百万条日程；每秒推进一格。
+ */
+final class TimingWheelScheduler implements ReminderEngine {
+    private static final int[] SLOTS = {60, 60, 24, 366};
+    private static final long[] SPAN = {1, 60, 3600, 86400};
+    private static final int OVERFLOW = SLOTS.length;
+    /** 落后超过该秒数时直接重建，而不是逐格追赶。 */
+    private static final long REBUILD_GAP = 2 * 86400;
+
+    private final Consumer<Main.ScheduleEntry> onDue;
+    private final Node[][] wheels = new Node[SLOTS.length + 1][];
+    private final Map<String, Node> byId = new HashMap<>();
+    /** 已处理到的秒（epoch second）。 */
+    private long current;
+
+    TimingWheelScheduler(ScheduledExecutorService executor, Consumer<Main.ScheduleEntry> onDue) {
+        this(onDue, System.currentTimeMillis() / 1000);
+        executor.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 不自动推进的时间轮，由调用方通过 {@link #advanceTo(long)} 驱动（基准测试用）。
+     */
+    TimingWheelScheduler(Consumer<Main.ScheduleEntry> onDue, long startSecond) {
+        this.onDue = onDue;
+        this.current = startSecond;
+        for (int level = 0; level < SLOTS.length; level++) {
+            wheels[level] = new Node[SLOTS[level]];
+        }
+        wheels[OVERFLOW] = new Node[1];
+    }
+
+    @Override
+    public synchronized boolean schedule(Main.ScheduleEntry entry) {
+        unlinkId(entry.getId());
+        long fireAt = ReminderEngine.toEpochMillis(entry.getDateTime());
+        if (fireAt < System.currentTimeMillis() - LATE_GRACE_MILLIS) {
+            return false;
+        }
+        Node node = new Node(Math.floorDiv(fireAt, 1000), entry);
+        byId.put(entry.getId(), node);
+        place(node, null);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean cancel(String id) {
+        return unlinkId(id);
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (Node[] wheel : wheels) {
+            Arrays.fill(wheel, null);
+        }
+        byId.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private void tick() {
+        advanceTo(System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * 推进到指定秒并触发所有到期条目，回调在锁外执行。
+     */
+    void advanceTo(long second) {
+        List<Main.ScheduleEntry> due = new ArrayList<>();
+        synchronized (this) {
+            if (second - current > REBUILD_GAP) {
+                rebuild(second, due);
+            }
+            while (current < second) {
+                step(due);
+            }
+        }
+        for (Main.ScheduleEntry entry : due) {
+            try {
+                onDue.accept(entry);
+            } catch (RuntimeException ex) {
+                System.err.println("提醒处理失败：" + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 前进一秒：先由高到低把跨越边界的槽下放，再收取秒轮当前槽。
+     */
+    private void step(List<Main.ScheduleEntry> due) {
+        long t = ++current;
+        if (t % SPAN[3] == 0) {
+            cascade(OVERFLOW, 0, due);
+        }
+        for (int level = SLOTS.length - 1; level >= 1; level--) {
+            if (t % SPAN[level] == 0) {
+                cascade(level, (int) ((t / SPAN[level]) % SLOTS[level]), due);
+            }
+        }
+        int slot = (int) (t % SLOTS[0]);
+        Node node = wheels[0][slot];
+        wheels[0][slot] = null;
+        while (node != null) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            byId.remove(node.entry.getId());
+            due.add(node.entry);
+            node = next;
+        }
+    }
+
+    private void cascade(int level, int slot, List<Main.ScheduleEntry> due) {
+        Node node = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (node != null) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            place(node, due);
+            node = next;
+        }
+    }
+
+    private void rebuild(long second, List<Main.ScheduleEntry> due) {
+        List<Node> all = new ArrayList<>(byId.values());
+        for (Node[] wheel : wheels) {
+            Arrays.fill(wheel, null);
+        }
+        current = second;
+        for (Node node : all) {
+            node.prev = null;
+            node.next = null;
+            place(node, due);
+        }
+    }
+
+    /**
+     * 按相对 current 的距离选层。due 为空表示不在推进过程中，已到期条目挂到下一秒槽。
+     */
+    private void place(Node node, List<Main.ScheduleEntry> due) {
+        long deadline = node.deadline;
+        if (deadline <= current) {
+            if (due != null) {
+                byId.remove(node.entry.getId());
+                due.add(node.entry);
+                return;
+            }
+            deadline = current + 1;
+        }
+        for (int level = 0; level < SLOTS.length; level++) {
+            long distance = deadline / SPAN[level] - current / SPAN[level];
+            if (distance < SLOTS[level]) {
+                link(node, level, (int) ((deadline / SPAN[level]) % SLOTS[level]));
+                return;
+            }
+        }
+        link(node, OVERFLOW, 0);
+    }
+
+    private void link(Node node, int level, int slot) {
+        Node head = wheels[level][slot];
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        wheels[level][slot] = node;
+    }
+
+    private boolean unlinkId(String id) {
+        Node node = byId.remove(id);
+        if (node == null) {
+            return false;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            wheels[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        return true;
+    }
+
+    private static final class Node {
+        final long deadline;
+        final Main.ScheduleEntry entry;
+        int level;
+        int slot;
+        Node prev;
+        Node next;
+
+        Node(long deadline, Main.ScheduleEntry entry) {
+            this.deadline = deadline;
+            this.entry = entry;
+        }
+    }
+}